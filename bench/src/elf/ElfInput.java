@@ -0,0 +1,68 @@
+package elf;
+
+import elf.generator.ElfGenerator;
+import elf.parser.ByteSource;
+import elf.parser.MappedByteSource;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Входной ELF-файл бенчмарков: отображается один раз на весь прогон, секции ищутся заранее.
+// Большие файлы подставляются через -p elf=<путь> или генерируются: "gen:<размер .text>[:<seed>]",
+// например gen:256M, -- файл создаётся ElfGenerator'ом во временном каталоге и удаляется после прогона.
+@State(Scope.Benchmark)
+public class ElfInput {
+    @Param({"tests/test1.elf", "tests/test2.elf", "tests/test3.elf", "tests/test4.elf", "gen:16M"})
+    public String elf;
+
+    public String path;
+    private Path generated;
+    public ByteSource source;
+    public ElfFile file;
+    public SectionHeader textHeader;
+    public SectionHeader symtabHeader;
+    public SectionHeader strtabHeader;
+
+    @Setup
+    public void open() throws IOException {
+        if (elf.startsWith("gen:")) {
+            final String[] spec = elf.split(":");
+            final ElfGenerator generator = new ElfGenerator();
+            generator.textSize = ElfGenerator.parseSize(spec[1]);
+            if (spec.length > 2) {
+                generator.seed = Long.parseLong(spec[2]);
+            }
+            generated = Files.createTempFile("elfreader-bench", ".elf");
+            generator.write(generated);
+            path = generated.toString();
+        } else {
+            path = elf;
+        }
+        source = new MappedByteSource(path);
+        file = new ElfFile(source);
+        textHeader = section(".text");
+        symtabHeader = section(".symtab");
+        strtabHeader = file.getSectionHeader(symtabHeader.getLink());
+    }
+
+    @TearDown
+    public void deleteGenerated() throws IOException {
+        if (generated != null) {
+            Files.deleteIfExists(generated);
+        }
+    }
+
+    private SectionHeader section(String name) {
+        final int index = file.findSection(name);
+        if (index < 0) {
+            throw new IllegalStateException(name + " section not found in " + elf);
+        }
+        return file.getSectionHeader(index);
+    }
+}
@@ -0,0 +1,26 @@
+package elf;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Дополнительные счётчики JMH: выводятся как скорость в секунду рядом с ops/s,
+// то есть в МБ/с обработанного входа и в командах/с
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+    public double megabytes;
+    public long instructions;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+        instructions = 0;
+    }
+
+    public void addBytes(long bytes) {
+        megabytes += bytes / 1e6;
+    }
+}
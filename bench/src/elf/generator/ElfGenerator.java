@@ -0,0 +1,497 @@
+package elf.generator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+// Генератор синтетических RV32 ELF-файлов для проверки на больших входах.
+// Пишет те же поля, что читает Parser: заголовок файла, один PT_LOAD, .text, секции данных,
+// .symtab, .strtab, .shstrtab и таблицу заголовков секций в конце. Содержимое полностью определяется
+// параметрами и seed'ом, поэтому один и тот же запуск всегда даёт побайтно одинаковый файл.
+// .text пишется потоком через буфер, в памяти держатся только адреса символов.
+public class ElfGenerator {
+    private static final int EHDR_SIZE = 0x34;
+    private static final int PHDR_SIZE = 0x20;
+    private static final int SHDR_SIZE = 0x28;
+    private static final int SYM_SIZE = 0x10;
+    private static final int BASE_ADDRESS = 0x10000;
+    private static final int DATA_SECTION_SIZE = 0x100;
+    // смещения ELF32 -- 32 бита без знака, а адрес секции -- BASE_ADDRESS плюс смещение, он тоже не должен переполниться
+    private static final long MAX_FILE_SIZE = (1L << 32) - BASE_ADDRESS;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    public long seed = 1;
+    public long textSize = 1 << 20;
+    // пропуск перед .text: файл пишется разреженным, так что .text за 2 ГБ не требует гигабайтов на диске
+    public long gap = 0;
+    // доли сжатых команд и команд RV32M в процентах, остальное -- RV32I
+    public int rvcPercent = 50;
+    public int mPercent = 5;
+    public int symbols = 1000;
+    public int sections = 4;
+    public int islands = 0;
+    public int islandSize = 64;
+
+    private SplittableRandom random;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    // символы: 0 -- нулевой, дальше функции и острова данных в порядке адресов;
+    // если .text слишком мал, размещается меньше символов, чем задано
+    private int[] symbolValues;
+    private int[] symbolSizes;
+    private boolean[] symbolIsIsland;
+    private int symbolCount;
+
+    public static void main(String[] args) throws IOException {
+        final ElfGenerator generator = new ElfGenerator();
+        final int offset = generator.parseArgs(args);
+        if (offset >= args.length) {
+            System.out.println("Usage: ElfGenerator [--seed N] [--text-size N[K|M|G]] [--rvc %] [--m %] " +
+                    "[--symbols N] [--sections N] [--islands N] [--island-size N] [--gap N[K|M|G]] <output file>");
+            return;
+        }
+        generator.write(Path.of(args[offset]));
+    }
+
+    public int parseArgs(String[] args) {
+        int i = 0;
+        while (i < args.length && args[i].startsWith("--")) {
+            switch (args[i]) {
+                case "--seed" -> seed = Long.parseLong(value(args, ++i));
+                case "--text-size" -> textSize = parseSize(value(args, ++i));
+                case "--rvc" -> rvcPercent = Integer.parseInt(value(args, ++i));
+                case "--m" -> mPercent = Integer.parseInt(value(args, ++i));
+                case "--symbols" -> symbols = Integer.parseInt(value(args, ++i));
+                case "--sections" -> sections = Integer.parseInt(value(args, ++i));
+                case "--islands" -> islands = Integer.parseInt(value(args, ++i));
+                case "--island-size" -> islandSize = Integer.parseInt(value(args, ++i));
+                case "--gap" -> gap = parseSize(value(args, ++i));
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Expected value after " + args[i - 1]);
+        }
+        return args[i];
+    }
+
+    // размер в байтах с необязательным суффиксом K, M или G
+    public static long parseSize(String size) {
+        final char suffix = Character.toUpperCase(size.charAt(size.length() - 1));
+        final int shift = switch (suffix) {
+            case 'K' -> 10;
+            case 'M' -> 20;
+            case 'G' -> 30;
+            default -> 0;
+        };
+        return Long.parseLong(shift == 0 ? size : size.substring(0, size.length() - 1)) << shift;
+    }
+
+    private void validate() {
+        if (textSize < 4 || textSize % 2 != 0) {
+            throw new IllegalArgumentException(".text size must be even and at least 4 bytes");
+        }
+        if (rvcPercent < 0 || mPercent < 0 || rvcPercent + mPercent > 100) {
+            throw new IllegalArgumentException("Instruction mix percentages must be in 0..100 in total");
+        }
+        if (gap < 0 || gap % 4 != 0) {
+            throw new IllegalArgumentException("Gap before .text must be a non-negative multiple of 4");
+        }
+        if (symbols < 0 || islands < 0 || islandSize < 2 || islandSize % 2 != 0) {
+            throw new IllegalArgumentException("Invalid symbol or data island count");
+        }
+        // индексы секций от 0xff00 зарезервированы
+        if (sections < 0 || sections + 5 >= 0xff00) {
+            throw new IllegalArgumentException("Invalid number of data sections");
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        validate();
+        random = new SplittableRandom(seed);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        symbolValues = new int[symbols + islands + 1];
+        symbolSizes = new int[symbolValues.length];
+        symbolIsIsland = new boolean[symbolValues.length];
+        symbolCount = 1;
+
+        final int textIndex = 1;
+        final int symtabIndex = textIndex + sections + 1;
+        final int strtabIndex = symtabIndex + 1;
+        final int shstrtabIndex = strtabIndex + 1;
+        final int sectionCount = shstrtabIndex + 1;
+        final long textOffset = EHDR_SIZE + PHDR_SIZE + gap;
+        final long dataOffset = align(textOffset + textSize, 4);
+        if (dataOffset + (long) sections * DATA_SECTION_SIZE > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("ELF32 offsets and addresses are 32-bit, " +
+                    "so generated files must be smaller than 4 GB");
+        }
+
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel = out;
+            // заголовок файла перезаписывается в конце, когда известно смещение таблицы секций
+            writeHeader(0, sectionCount, shstrtabIndex, dataOffset);
+            skip(textOffset);
+            writeText(textOffset);
+            pad(dataOffset);
+            for (int i = 0; i < sections; i++) {
+                for (int j = 0; j < DATA_SECTION_SIZE; j++) {
+                    putByte(random.nextInt(0x100));
+                }
+            }
+            final long symtabOffset = offset();
+            writeSymbols(textIndex);
+            final long strtabOffset = offset();
+            writeStrings();
+            final long shstrtabOffset = offset();
+            final byte[] shstrtab = shstrtab();
+            ensure(shstrtab.length);
+            buffer.put(shstrtab);
+            final long shoff = align(offset(), 4);
+            pad(shoff);
+            if (shoff + (long) sectionCount * SHDR_SIZE > MAX_FILE_SIZE) {
+                throw new IllegalArgumentException("ELF32 offsets and addresses are 32-bit, " +
+                        "so generated files must be smaller than 4 GB");
+            }
+
+            // имена -- смещения в shstrtab, см. shstrtab()
+            writeSectionHeader(0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+            writeSectionHeader(1, 1, 0x6, address(textOffset), textOffset, textSize, 0, 0, 4, 0);
+            int name = 1 + ".text".length() + 1;
+            for (int i = 0; i < sections; i++) {
+                writeSectionHeader(name, 1, 0x3, address(dataOffset + (long) i * DATA_SECTION_SIZE),
+                        dataOffset + (long) i * DATA_SECTION_SIZE, DATA_SECTION_SIZE, 0, 0, 4, 0);
+                name += dataSectionName(i).length() + 1;
+            }
+            writeSectionHeader(name, 2, 0, 0, symtabOffset, strtabOffset - symtabOffset, strtabIndex, 1, 4,
+                    SYM_SIZE);
+            name += ".symtab".length() + 1;
+            writeSectionHeader(name, 3, 0, 0, strtabOffset, shstrtabOffset - strtabOffset, 0, 0, 1, 0);
+            name += ".strtab".length() + 1;
+            writeSectionHeader(name, 3, 0, 0, shstrtabOffset, shstrtab.length, 0, 0, 1, 0);
+            flush();
+            writeHeader(shoff, sectionCount, shstrtabIndex, dataOffset);
+            buffer.flip();
+            channel.write(buffer, 0);
+            buffer.clear();
+        } finally {
+            channel = null;
+        }
+    }
+
+    // смещение в файле следующего записываемого байта
+    private long offset() throws IOException {
+        return channel.position() + buffer.position();
+    }
+
+    private static long align(long value, int alignment) {
+        return (value + alignment - 1) / alignment * alignment;
+    }
+
+    private static int address(long offset) {
+        return (int) (BASE_ADDRESS + offset);
+    }
+
+    private static String dataSectionName(int index) {
+        return ".data." + index;
+    }
+
+    private static String symbolName(int index, boolean island) {
+        return (island ? "island_" : "func_") + index;
+    }
+
+    private void writeHeader(long shoff, int sectionCount, int shstrtabIndex, long loadSize) throws IOException {
+        ensure(EHDR_SIZE + PHDR_SIZE);
+        buffer.put(new byte[]{0x7f, 'E', 'L', 'F', 1, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+        buffer.putShort((short) 2);        // ET_EXEC
+        buffer.putShort((short) 0xf3);     // EM_RISCV
+        buffer.putInt(1);
+        buffer.putInt(address(EHDR_SIZE + PHDR_SIZE));
+        buffer.putInt(EHDR_SIZE);
+        buffer.putInt((int) shoff);
+        buffer.putInt(0x1);                // EF_RISCV_RVC
+        buffer.putShort((short) EHDR_SIZE);
+        buffer.putShort((short) PHDR_SIZE);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) SHDR_SIZE);
+        buffer.putShort((short) sectionCount);
+        buffer.putShort((short) shstrtabIndex);
+        // PT_LOAD от начала файла до конца секций данных
+        final long size = loadSize + (long) sections * DATA_SECTION_SIZE;
+        buffer.putInt(1);
+        buffer.putInt(0);
+        buffer.putInt(BASE_ADDRESS);
+        buffer.putInt(BASE_ADDRESS);
+        buffer.putInt((int) size);
+        buffer.putInt((int) size);
+        buffer.putInt(0x7);
+        buffer.putInt(0x1000);
+    }
+
+    private void writeSectionHeader(int name, int type, int flags, int address, long offset, long size,
+                                    int link, int info, int alignment, int entrySize) throws IOException {
+        ensure(SHDR_SIZE);
+        buffer.putInt(name);
+        buffer.putInt(type);
+        buffer.putInt(flags);
+        buffer.putInt(address);
+        buffer.putInt((int) offset);
+        buffer.putInt((int) size);
+        buffer.putInt(link);
+        buffer.putInt(info);
+        buffer.putInt(alignment);
+        buffer.putInt(entrySize);
+    }
+
+    // функции и острова данных расставляются равномерно; символ функции ставится на ближайшую границу команды
+    private void writeText(long start) throws IOException {
+        final long functionStep = symbols == 0 ? Long.MAX_VALUE : Math.max(2, textSize / symbols);
+        final long islandStep = islands == 0 ? Long.MAX_VALUE : textSize / (islands + 1);
+        long nextFunction = 0;
+        long nextIsland = islandStep;
+        int functions = 0;
+        int placedIslands = 0;
+        int lastSymbol = 0;
+        long position = 0;
+        while (position + 4 <= textSize) {
+            if (placedIslands < islands && position >= nextIsland && position + islandSize + 4 <= textSize) {
+                lastSymbol = startSymbol(lastSymbol, start + position, true);
+                placedIslands++;
+                for (int i = 0; i < islandSize; i++) {
+                    putByte(random.nextInt(0x100));
+                }
+                position += islandSize;
+                nextIsland += islandStep;
+                continue;
+            }
+            if (functions < symbols && position >= nextFunction) {
+                lastSymbol = startSymbol(lastSymbol, start + position, false);
+                functions++;
+                nextFunction += functionStep;
+            }
+            position += writeInstruction(position);
+        }
+        // остаток короче 32-битной команды добивается c.nop
+        while (position < textSize) {
+            putShort(0x0001);
+            position += 2;
+        }
+        closeSymbol(lastSymbol, start + position);
+    }
+
+    private int startSymbol(int lastSymbol, long offset, boolean island) {
+        closeSymbol(lastSymbol, offset);
+        symbolValues[symbolCount] = address(offset);
+        symbolIsIsland[symbolCount] = island;
+        return symbolCount++;
+    }
+
+    private void closeSymbol(int symbol, long end) {
+        if (symbol != 0) {
+            symbolSizes[symbol] = address(end) - symbolValues[symbol];
+        }
+    }
+
+    private int writeInstruction(long position) throws IOException {
+        final int kind = random.nextInt(100);
+        if (kind < rvcPercent) {
+            putShort(rvc());
+            return 2;
+        }
+        putInt(kind < rvcPercent + mPercent ? rv32m() : rv32i(position));
+        return 4;
+    }
+
+    private int register() {
+        return random.nextInt(32);
+    }
+
+    private int nonZeroRegister() {
+        return 1 + random.nextInt(31);
+    }
+
+    private int rType(int funct7, int funct3, int opcode) {
+        return funct7 << 25 | register() << 20 | register() << 15 | funct3 << 12 | register() << 7 | opcode;
+    }
+
+    private int iType(int immediate, int funct3, int opcode) {
+        return immediate << 20 | register() << 15 | funct3 << 12 | register() << 7 | opcode;
+    }
+
+    private int rv32m() {
+        return rType(0x1, random.nextInt(8), 0x33);
+    }
+
+    // смещения переходов не выходят за .text, чтобы метки попадали внутрь секции
+    private int rv32i(long position) {
+        final int[] arithmetic = {0x0, 0x2, 0x3, 0x4, 0x6, 0x7};
+        final int[] branches = {0x0, 0x1, 0x4, 0x5, 0x6, 0x7};
+        final int[] loads = {0x0, 0x1, 0x2, 0x4, 0x5};
+        return switch (random.nextInt(10)) {
+            case 0, 1 -> iType(random.nextInt(0x1000), arithmetic[random.nextInt(arithmetic.length)], 0x13);
+            case 2 -> {
+                final int funct3 = random.nextBoolean() ? 0x1 : 0x5;
+                final int funct7 = funct3 == 0x5 && random.nextBoolean() ? 0x20 : 0x0;
+                yield iType(funct7 << 5 | random.nextInt(32), funct3, 0x13);
+            }
+            case 3 -> {
+                final int funct3 = random.nextInt(8);
+                final int funct7 = (funct3 == 0x0 || funct3 == 0x5) && random.nextBoolean() ? 0x20 : 0x0;
+                yield rType(funct7, funct3, 0x33);
+            }
+            case 4 -> iType(random.nextInt(0x1000), loads[random.nextInt(loads.length)], 0x3);
+            case 5 -> {
+                final int immediate = random.nextInt(0x1000);
+                yield (immediate >> 5) << 25 | register() << 20 | register() << 15 | random.nextInt(3) << 12 |
+                        (immediate & 0x1f) << 7 | 0x23;
+            }
+            case 6 -> {
+                final int offset = jumpOffset(position, 1 << 12);
+                yield (offset >> 12 & 0x1) << 31 | (offset >> 5 & 0x3f) << 25 | register() << 20 |
+                        register() << 15 | branches[random.nextInt(branches.length)] << 12 |
+                        (offset >> 1 & 0xf) << 8 | (offset >> 11 & 0x1) << 7 | 0x63;
+            }
+            case 7 -> {
+                final int offset = jumpOffset(position, 1 << 20);
+                yield (offset >> 20 & 0x1) << 31 | (offset >> 1 & 0x3ff) << 21 | (offset >> 11 & 0x1) << 20 |
+                        (offset >> 12 & 0xff) << 12 | register() << 7 | 0x6f;
+            }
+            case 8 -> iType(random.nextInt(0x1000), 0x0, 0x67);
+            default -> random.nextInt(1 << 20) << 12 | register() << 7 | (random.nextBoolean() ? 0x37 : 0x17);
+        };
+    }
+
+    // чётное смещение в пределах [-range, range) так, чтобы цель лежала в .text
+    private int jumpOffset(long position, int range) {
+        final long low = Math.max(-range, -position);
+        final long high = Math.min(range, textSize - position);
+        return (int) (low + random.nextLong(high - low) & ~1L);
+    }
+
+    // сжатые команды RV32C; поля, которые спецификация запрещает обнулять, не обнуляются
+    private int rvc() {
+        final int bits = random.nextInt(1 << 11) << 2;
+        return switch (random.nextInt(12)) {
+            // c.addi4spn: ненулевой nzuimm
+            case 0 -> (bits & ~(0xff << 5)) | (1 + random.nextInt(0xff)) << 5;
+            // c.lw, c.sw
+            case 1 -> 0x2 << 13 | bits;
+            case 2 -> 0x6 << 13 | bits;
+            // c.addi, c.jal, c.li, c.j, c.beqz, c.bnez
+            case 3 -> 0x0 << 13 | bits | 0x1;
+            case 4 -> 0x1 << 13 | bits | 0x1;
+            case 5 -> 0x2 << 13 | bits | 0x1;
+            case 6 -> (0x5 + random.nextInt(3)) << 13 | bits | 0x1;
+            // c.lui: rd не 0 и не sp, ненулевой nzimm
+            case 7 -> 0x3 << 13 | (bits & ~(0x1f << 7) & ~(0x1 << 12)) | (3 + random.nextInt(29)) << 7 |
+                    0x1 << 12 | 0x1;
+            // c.srli, c.srai, c.andi, c.sub/xor/or/and; shamt[5] = 0 для RV32
+            case 8 -> 0x4 << 13 | (bits & ~(0x1 << 12) & ~(0x3 << 10)) | random.nextInt(4) << 10 | 0x1;
+            // c.slli, c.lwsp: rd не 0
+            case 9 -> (random.nextBoolean() ? 0x0 : 0x2) << 13 | (bits & ~(0x1 << 12) & ~(0x1f << 7)) |
+                    nonZeroRegister() << 7 | 0x2;
+            // c.mv, c.add: rd и rs2 не 0
+            case 10 -> 0x4 << 13 | random.nextInt(2) << 12 | nonZeroRegister() << 7 | nonZeroRegister() << 2 | 0x2;
+            // c.swsp
+            default -> 0x6 << 13 | bits | 0x2;
+        };
+    }
+
+    private byte[] shstrtab() {
+        final StringBuilder res = new StringBuilder("\0.text\0");
+        for (int i = 0; i < sections; i++) {
+            res.append(dataSectionName(i)).append('\0');
+        }
+        res.append(".symtab\0.strtab\0.shstrtab\0");
+        return res.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    // функции и острова нумеруются отдельно, в порядке адресов
+    private void writeSymbols(int textIndex) throws IOException {
+        ensure(SYM_SIZE);
+        buffer.put(new byte[SYM_SIZE]);
+        int name = 1;
+        int functions = 0;
+        int placedIslands = 0;
+        for (int i = 1; i < symbolCount; i++) {
+            final boolean island = symbolIsIsland[i];
+            ensure(SYM_SIZE);
+            buffer.putInt(name);
+            buffer.putInt(symbolValues[i]);
+            buffer.putInt(symbolSizes[i]);
+            buffer.put((byte) (0x1 << 4 | (island ? 0x1 : 0x2)));   // GLOBAL, OBJECT или FUNC
+            buffer.put((byte) 0);
+            buffer.putShort((short) textIndex);
+            name += symbolName(island ? placedIslands++ : functions++, island).length() + 1;
+        }
+    }
+
+    // имена в том же порядке, что и записи символов
+    private void writeStrings() throws IOException {
+        putByte(0);
+        int functions = 0;
+        int placedIslands = 0;
+        for (int i = 1; i < symbolCount; i++) {
+            putString(symbolIsIsland[i] ? symbolName(placedIslands++, true) : symbolName(functions++, false));
+        }
+    }
+
+    private void putString(String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+        ensure(bytes.length + 1);
+        buffer.put(bytes).put((byte) 0);
+    }
+
+    private void putByte(int value) throws IOException {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+
+    private void putShort(int value) throws IOException {
+        ensure(2);
+        buffer.putShort((short) value);
+    }
+
+    private void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    // нули до смещения offset в файле
+    private void pad(long offset) throws IOException {
+        while (channel.position() + buffer.position() < offset) {
+            putByte(0);
+        }
+    }
+
+    // пропущенные байты не записываются и читаются как нули
+    private void skip(long offset) throws IOException {
+        flush();
+        channel.position(offset);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
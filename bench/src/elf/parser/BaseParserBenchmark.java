@@ -0,0 +1,41 @@
+package elf.parser;
+
+import elf.ElfInput;
+import elf.Throughput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Warmup;
+
+// takeWord защищённый, поэтому бенчмарк лежит в том же пакете и читает файл через наследника BaseParser
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaseParserBenchmark {
+    private static class WordReader extends BaseParser {
+        private final long words;
+
+        private WordReader(ByteSource source) {
+            super(source);
+            words = source.size() / 4;
+        }
+
+        private int sum() {
+            int res = 0;
+            for (long i = 0; i < words; i++) {
+                res += takeWord();
+            }
+            return res;
+        }
+    }
+
+    @Benchmark
+    public int takeWord(ElfInput input, Throughput throughput) {
+        final WordReader reader = new WordReader(input.source);
+        throughput.addBytes(reader.words * 4);
+        return reader.sum();
+    }
+}
@@ -0,0 +1,43 @@
+package elf.parser;
+
+import elf.ELFHeader;
+import elf.ElfInput;
+import elf.SectionHeader;
+import elf.SymbolTable;
+import elf.Throughput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    @Benchmark
+    public List<SectionHeader> parseSectionHeaders(ElfInput input, Throughput throughput) {
+        final ELFHeader header = input.file.getHeader();
+        throughput.addBytes(0x28L * header.getSHNumber());
+        return new Parser(input.source).parseSectionHeaders(header.getSHOffset(), header.getSHNumber(),
+                header.getSHStringTableIndex());
+    }
+
+    // только столбцы, имена не разрешаются -- так таблицу читает -t
+    @Benchmark
+    public SymbolTable parseSymbolTable(ElfInput input, Throughput throughput) {
+        throughput.addBytes(input.symtabHeader.getSize());
+        return new Parser(input.source).parseSymbolTable(input.symtabHeader, input.strtabHeader);
+    }
+
+    // столбцы вместе со всеми именами -- так таблицу читает -s
+    @Benchmark
+    public SymbolTable parseSymbolTableWithNames(ElfInput input, Throughput throughput) {
+        throughput.addBytes(input.symtabHeader.getSize() + input.strtabHeader.getSize());
+        return new Parser(input.source).parseSymbolTable(input.symtabHeader, input.strtabHeader).resolveNames();
+    }
+}
@@ -0,0 +1,53 @@
+package elf.reader;
+
+import elf.ElfInput;
+import elf.Throughput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// весь путь от чтения файла до записи вывода, как при запуске с -a -q
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReaderBenchmark {
+    // дополнительные флаги режима дизассемблирования, например "-c" или "-j"
+    @Param({"", "-c", "-j"})
+    public String mode;
+
+    private Path output;
+
+    @Setup
+    public void createOutput() throws IOException {
+        output = Files.createTempFile("elfreader-bench", ".txt");
+    }
+
+    @TearDown
+    public void deleteOutput() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public void write(ElfInput input, Throughput throughput) throws IOException {
+        final Flags flags = new Flags();
+        Reader.parseFlags(("-a -q " + mode).trim().split(" "), flags);
+        final Reader reader = new Reader(flags, input.path, output.toString());
+        reader.read();
+        reader.writeOutput();
+        throughput.addBytes(input.source.size());
+    }
+}
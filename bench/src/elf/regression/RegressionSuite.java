@@ -0,0 +1,305 @@
+package elf.regression;
+
+import elf.generator.ElfGenerator;
+import elf.reader.Flags;
+import elf.reader.Reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Properties;
+
+// Сквозная проверка производительности: полный прогон Reader (read + writeOutput) на tests/*.elf
+// и на сгенерированных файлах в каждом из режимов дизассемблирования.
+// Вывод на tests/*.elf сравнивается с эталонными .out, вывод на сгенерированных -- с хешем из базовой линии.
+// Для каждого случая записываются лучшее время, скорость, пиковые куча и RSS и выделенная память;
+// при падении скорости или росте памяти сверх допуска относительно базовой линии процесс завершается с кодом 1.
+// Без файла базовой линии проверка не проходит, если он не записывается заново (--update-baseline).
+public class RegressionSuite {
+    private static final String USAGE = "Usage: RegressionSuite [--baseline file] [--update-baseline] " +
+            "[--tolerance fraction] [--runs N] [--modes \"-c,-j\"] [--gen 16M,64M,1M@2560M] [--corpus dir]";
+
+    private Path baselinePath = Path.of("bench/baseline.properties");
+    private boolean updateBaseline;
+    private double tolerance = 0.2;
+    private int runs = 3;
+    private List<String> modes = List.of("", "-c", "-j");
+    // размер .text[@пропуск перед ней]: второй случай кладёт .text за 2 ГБ в разреженном файле
+    private List<String> generated = List.of("16M", "1M@2560M");
+    private Path corpus = Path.of("tests");
+
+    private final Properties baseline = new Properties();
+    private final Properties results = new Properties();
+    private final List<String> failures = new ArrayList<>();
+
+    private static class Measurement {
+        private long bestNanos = Long.MAX_VALUE;
+        private long peakHeap;
+        private long peakRss = -1;
+        private boolean rssUnavailable;
+        private long allocated;
+    }
+
+    public static void main(String[] args) throws IOException {
+        final RegressionSuite suite = new RegressionSuite();
+        suite.parseArgs(args);
+        System.exit(suite.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline" -> baselinePath = Path.of(value(args, ++i));
+                case "--update-baseline" -> updateBaseline = true;
+                case "--tolerance" -> tolerance = Double.parseDouble(value(args, ++i));
+                case "--runs" -> runs = Integer.parseInt(value(args, ++i));
+                case "--modes" -> modes = Arrays.asList(value(args, ++i).split(",", -1));
+                case "--gen" -> {
+                    final String sizes = value(args, ++i);
+                    generated = sizes.isEmpty() ? List.of() : Arrays.asList(sizes.split(","));
+                }
+                case "--corpus" -> corpus = Path.of(value(args, ++i));
+                default -> throw new IllegalArgumentException("Unknown option " + args[i] + "\n" + USAGE);
+            }
+        }
+        if (runs < 1 || tolerance < 0) {
+            throw new IllegalArgumentException(USAGE);
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Expected value after " + args[i - 1]);
+        }
+        return args[i];
+    }
+
+    private boolean run() throws IOException {
+        if (Files.exists(baselinePath)) {
+            try (InputStream in = Files.newInputStream(baselinePath)) {
+                baseline.load(in);
+            }
+        } else if (!updateBaseline) {
+            System.out.println("No baseline at " + baselinePath + " (run with --update-baseline to record one)");
+            return false;
+        }
+        final Path work = Files.createTempDirectory("elfreader-regression");
+        try {
+            for (int i = 1; Files.exists(corpus.resolve("test" + i + ".elf")); i++) {
+                final Path elf = corpus.resolve("test" + i + ".elf");
+                final String golden = normalize(Files.readString(corpus.resolve("test" + i + ".out"),
+                        StandardCharsets.UTF_8));
+                for (String mode : modes) {
+                    runCase("test" + i + mode, elf, Files.size(elf), mode, work, golden);
+                }
+            }
+            for (String size : generated) {
+                final Path elf = work.resolve("gen-" + size + ".elf");
+                final ElfGenerator generator = new ElfGenerator();
+                final int at = size.indexOf('@');
+                generator.textSize = ElfGenerator.parseSize(at < 0 ? size : size.substring(0, at));
+                if (at >= 0) {
+                    generator.gap = ElfGenerator.parseSize(size.substring(at + 1));
+                }
+                generator.write(elf);
+                // пропуск не читается, в скорость он не входит
+                final long inputSize = Files.size(elf) - generator.gap;
+                for (String mode : modes) {
+                    runCase("gen" + size + mode, elf, inputSize, mode, work, null);
+                }
+                Files.delete(elf);
+            }
+        } finally {
+            try (var files = Files.list(work)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(work);
+        }
+        if (updateBaseline) {
+            try (OutputStream out = Files.newOutputStream(baselinePath)) {
+                results.store(out, "elfreader regression baseline: MB/s, bytes and output hashes per case");
+            }
+            System.out.println("Baseline written to " + baselinePath);
+        }
+        if (failures.isEmpty()) {
+            System.out.println("OK");
+            return true;
+        }
+        System.out.println("FAILED:");
+        for (String failure : failures) {
+            System.out.println("  " + failure);
+        }
+        return false;
+    }
+
+    // эталоны записаны под Windows, путь в первой строке приводится к одному виду
+    private static String normalize(String output) {
+        return output.replace("\r\n", "\n").replace('\\', '/');
+    }
+
+    private void runCase(String name, Path elf, long inputSize, String mode, Path work, String golden)
+            throws IOException {
+        final Path output = work.resolve(name + ".txt");
+        final String[] args = ("-a -q " + mode).trim().split(" ");
+        final Measurement measurement = new Measurement();
+        // первый прогон -- прогрев, его результат только проверяется
+        for (int run = 0; run <= runs; run++) {
+            final Flags flags = new Flags();
+            Reader.parseFlags(args, flags);
+            System.gc();
+            final boolean rssReset = resetPeaks();
+            final long allocatedBefore = allocatedBytes();
+            final long start = System.nanoTime();
+            final Reader reader = new Reader(flags, elf.toString(), output.toString());
+            reader.read();
+            reader.writeOutput();
+            final long nanos = System.nanoTime() - start;
+            if (run == 0) {
+                checkOutput(name, output, golden);
+                continue;
+            }
+            if (nanos < measurement.bestNanos) {
+                measurement.bestNanos = nanos;
+            }
+            measurement.allocated = Math.max(measurement.allocated, allocatedBytes() - allocatedBefore);
+            measurement.peakHeap = Math.max(measurement.peakHeap, peakHeap());
+            // без сброса VmHWM -- пик за весь процесс, а не за прогон, и сравнивать его нельзя
+            measurement.rssUnavailable |= !rssReset;
+            measurement.peakRss = Math.max(measurement.peakRss, statusBytes("VmHWM:"));
+        }
+        if (measurement.rssUnavailable) {
+            measurement.peakRss = -1;
+        }
+        Files.delete(output);
+        report(name, inputSize, measurement);
+    }
+
+    private void checkOutput(String name, Path output, String golden) throws IOException {
+        if (golden != null) {
+            if (!normalize(Files.readString(output, StandardCharsets.UTF_8)).equals(golden)) {
+                failures.add(name + ": output differs from golden file");
+            }
+            return;
+        }
+        // в первой строке путь ко временному файлу, он в хеш не входит; переводы строк приводятся к \n,
+        // чтобы хеш из репозитория подходил для любой ОС
+        final String text = normalize(Files.readString(output, StandardCharsets.UTF_8));
+        final String hash = sha256(text.substring(text.indexOf('\n') + 1).getBytes(StandardCharsets.UTF_8));
+        results.setProperty(name + ".sha256", hash);
+        final String expected = baseline.getProperty(name + ".sha256");
+        if (expected != null && !expected.equals(hash) && !updateBaseline) {
+            failures.add(name + ": output hash " + hash + " differs from baseline " + expected);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bytes);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void report(String name, long inputSize, Measurement measurement) {
+        final double megabytesPerSecond = inputSize / 1e6 / (measurement.bestNanos / 1e9);
+        System.out.printf("%-16s %10.3f ms %10.2f MB/s  heap %8d KB  rss %8s KB  allocated %10d KB%n", name,
+                measurement.bestNanos / 1e6, megabytesPerSecond, measurement.peakHeap >> 10,
+                measurement.peakRss < 0 ? "n/a" : String.valueOf(measurement.peakRss >> 10),
+                measurement.allocated >> 10);
+        results.setProperty(name + ".mbps", String.format("%.3f", megabytesPerSecond));
+        results.setProperty(name + ".heap", String.valueOf(measurement.peakHeap));
+        results.setProperty(name + ".allocated", String.valueOf(measurement.allocated));
+        if (measurement.peakRss >= 0) {
+            results.setProperty(name + ".rss", String.valueOf(measurement.peakRss));
+        }
+        if (updateBaseline) {
+            return;
+        }
+        final String baseSpeed = baseline.getProperty(name + ".mbps");
+        if (baseSpeed == null) {
+            // в репозитории хранятся только хеши: скорость и память зависят от машины
+            System.out.println("  no throughput and memory baseline for " + name + ", only output is checked");
+        }
+        if (baseSpeed != null && megabytesPerSecond < Double.parseDouble(baseSpeed) * (1 - tolerance)) {
+            failures.add(String.format("%s: throughput %.2f MB/s is below baseline %s MB/s", name,
+                    megabytesPerSecond, baseSpeed));
+        }
+        checkGrowth(name, "heap", measurement.peakHeap);
+        checkGrowth(name, "allocated", measurement.allocated);
+        if (measurement.peakRss >= 0) {
+            checkGrowth(name, "rss", measurement.peakRss);
+        }
+    }
+
+    private void checkGrowth(String name, String metric, long value) {
+        final String base = baseline.getProperty(name + "." + metric);
+        if (base != null && value > Long.parseLong(base) * (1 + tolerance)) {
+            failures.add(name + ": " + metric + " " + value + " bytes exceeds baseline " + base + " bytes");
+        }
+    }
+
+    // возвращает, удалось ли сбросить пиковый RSS процесса (Linux)
+    private static boolean resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+        try {
+            Files.writeString(Path.of("/proc/self/clear_refs"), "5");
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            // не Linux или нет прав
+            return false;
+        }
+        // запись может пройти, но не подействовать: после сброса пик не больше текущего RSS
+        final long peak = statusBytes("VmHWM:");
+        final long current = statusBytes("VmRSS:");
+        return peak >= 0 && current >= 0 && peak <= current;
+    }
+
+    private static long peakHeap() {
+        long res = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                res += pool.getPeakUsage().getUsed();
+            }
+        }
+        return res;
+    }
+
+    // поле из /proc/self/status в байтах или -1, если оно недоступно
+    private static long statusBytes(String field) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith(field)) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) << 10;
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    // память, выделенная текущим потоком; рабочие потоки режимов -j, -p и -P сюда не входят
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,52 @@
+package riscv;
+
+import elf.ElfInput;
+import elf.SectionHeader;
+import elf.Throughput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import riscv.RV32.Instruction;
+
+import java.util.List;
+
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DisassemblerBenchmark {
+    @Param({"true", "false"})
+    public boolean rvcTable;
+
+    private Disassembler disassembler(ElfInput input, Throughput throughput) {
+        final SectionHeader text = input.textHeader;
+        throughput.addBytes(text.getSize());
+        return new Disassembler(input.source.slice(text.getOffset(), text.getSize()), true, rvcTable);
+    }
+
+    // декодирование в приёмник, без списка команд
+    @Benchmark
+    public void disassemble(ElfInput input, Throughput throughput, Blackhole blackhole) {
+        final long[] count = {0};
+        disassembler(input, throughput).disassemble(input.textHeader.getAddress(), (address, instruction) -> {
+            blackhole.consume(instruction);
+            count[0]++;
+        });
+        throughput.instructions += count[0];
+    }
+
+    @Benchmark
+    public List<Instruction> disassembleToList(ElfInput input, Throughput throughput) {
+        final List<Instruction> res = disassembler(input, throughput).disassemble(input.textHeader.getAddress());
+        throughput.instructions += res.size();
+        return res;
+    }
+}
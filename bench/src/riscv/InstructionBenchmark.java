@@ -0,0 +1,60 @@
+package riscv;
+
+import elf.ElfInput;
+import elf.SymbolTable;
+import elf.Throughput;
+import elf.parser.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import riscv.RV32.Commands;
+import riscv.RV32.Instruction;
+
+import java.util.List;
+
+// форматирование уже декодированных команд с метками функций и переходов, как в Reader.printText
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstructionBenchmark {
+    private Instruction[] instructions;
+    private int[] addresses;
+    private Labels labels;
+
+    @Setup
+    public void decode(ElfInput input) {
+        final List<Instruction> decoded = new Parser(input.source).parseText(input.textHeader, true);
+        instructions = decoded.toArray(new Instruction[0]);
+        addresses = new int[instructions.length];
+        labels = new Labels();
+        final SymbolTable symbols = input.file.getSymbolTable(input.file.findSection(".symtab"));
+        for (int i = 0; i < symbols.size(); i++) {
+            if (symbols.getTypeCode(i) == SymbolTable.STT_FUNC) {
+                labels.putName(symbols.getValue(i), symbols.getName(i));
+            }
+        }
+        int address = input.textHeader.getAddress();
+        for (int i = 0; i < instructions.length; i++) {
+            addresses[i] = address;
+            final Commands command = instructions[i].getCommand();
+            address += command.toString().startsWith("C_") || command == Commands.UNKNOWN ? 2 : 4;
+        }
+    }
+
+    @Benchmark
+    public void printInstruction(Throughput throughput, Blackhole blackhole) {
+        for (int i = 0; i < instructions.length; i++) {
+            blackhole.consume(instructions[i].printInstruction(addresses[i], labels));
+        }
+        throughput.instructions += instructions.length;
+    }
+}
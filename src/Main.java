@@ -1,16 +1,31 @@
+import elf.reader.BatchReader;
 import elf.reader.Reader;
+import elf.reader.ReaderServer;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 public class Main {
 
     public static void main(String[] args) {
         try {
+            if (Arrays.asList(args).contains("--server")) {
+                ReaderServer.fromArgs(args).serve();
+                return;
+            }
+            if (Arrays.asList(args).contains("--batch")) {
+                if (new BatchReader(args).run() > 0) {
+                    System.exit(1);
+                }
+                return;
+            }
             final Reader reader = new Reader(args);
             reader.read();
             reader.write();
         } catch (IOException e) {
             System.out.println("Input error occurred: " + e.getMessage());
+        } catch (InterruptedException e) {
+            System.out.println("Interrupted");
         }
     }
 }
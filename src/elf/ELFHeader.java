@@ -63,7 +63,36 @@ public class ELFHeader {
         };
     }
 
-    public int getSHOffset() {
+    public int[] getMagicBytes() {
+        return ei_mag.clone();
+    }
+
+    public int getClassCode() {
+        return ei_class;
+    }
+
+    public int getDataCode() {
+        return ei_data;
+    }
+
+    public int getTypeCode() {
+        return e_type;
+    }
+
+    public int getMachineCode() {
+        return e_machine;
+    }
+
+    public int getFlagsCode() {
+        return e_flags;
+    }
+
+    // e_shoff беззнаковый
+    public long getSHOffset() {
+        return Integer.toUnsignedLong(e_shoff);
+    }
+
+    public int getSHOffsetCode() {
         return e_shoff;
     }
 
@@ -113,7 +142,7 @@ public class ELFHeader {
     public void setType(int type) {
         switch (type) {
             case 0 -> throw new IllegalArgumentException("Incorrect type");
-            case 2 -> e_type = type;
+            case 2, 3 -> e_type = type; //ET_EXEC, ET_DYN
             default -> throw new IllegalArgumentException("Unsupported type");
         }
     }
@@ -126,9 +155,6 @@ public class ELFHeader {
     }
 
     public void setSHoff(int sectionHeadersOffset) {
-        if (sectionHeadersOffset < 0) {
-            throw new IllegalArgumentException("Incorrect section headers offset");
-        }
         this.e_shoff = sectionHeadersOffset;
     }
 
@@ -0,0 +1,162 @@
+package elf;
+
+import elf.parser.ByteSource;
+import elf.parser.MappedByteSource;
+import elf.parser.Parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Ленивая модель ELF-файла: заголовки секций, их имена, символы и таблицы строк читаются
+// при первом обращении и запоминаются, поэтому узкий запрос трогает только нужные байты.
+// Модель неизменяема снаружи и потокобезопасна: файл читается только по абсолютным позициям
+// (у каждого вызова свой короткоживущий Parser), а результаты публикуются через атомарные структуры,
+// так что несколько потоков могут разделять один отображённый файл без блокировок.
+// Если два потока одновременно запросят одно и то же, оно может быть разобрано дважды, но результаты равны.
+public class ElfFile {
+    private final ByteSource source;
+    private final ELFHeader header;
+    private final AtomicReferenceArray<SectionHeader> sections;
+    private final ConcurrentMap<Integer, StringTable> stringTables = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, SymbolTable> symbolTables = new ConcurrentHashMap<>();
+    private volatile SymbolHashTable dynamicHashTable;
+
+    public ElfFile(String path) throws IOException {
+        this(new MappedByteSource(path));
+    }
+
+    public ElfFile(ByteSource source) {
+        this.source = source;
+        this.header = parser().parseELFHeader();
+        this.sections = new AtomicReferenceArray<>(header.getSHNumber());
+    }
+
+    // курсор Parser'а не разделяется между потоками
+    private Parser parser() {
+        return new Parser(source);
+    }
+
+    public ByteSource getSource() {
+        return source;
+    }
+
+    public ELFHeader getHeader() {
+        return header;
+    }
+
+    public int getSectionCount() {
+        return header.getSHNumber();
+    }
+
+    // заголовок секции вместе с именем: объект публикуется только полностью заполненным
+    public SectionHeader getSectionHeader(int index) {
+        if (index < 0 || index >= sections.length()) {
+            throw new IllegalArgumentException("Section index is out of bounds: " + index);
+        }
+        SectionHeader res = sections.get(index);
+        if (res == null) {
+            res = parser().parseSectionHeader(header.getSHOffset(), index);
+            res.setName(getStringTable(shstrtabIndex()).getString(res.getNameOffset()));
+            if (!sections.compareAndSet(index, null, res)) {
+                res = sections.get(index);
+            }
+        }
+        return res;
+    }
+
+    private int shstrtabIndex() {
+        final int res = header.getSHStringTableIndex();
+        if (res < 0 || res >= getSectionCount()) {
+            throw new IllegalArgumentException("Section header name table index is out of bounds");
+        }
+        return res;
+    }
+
+    public String getSectionName(int index) {
+        return getSectionHeader(index).getName();
+    }
+
+    public List<SectionHeader> getSectionHeaders() {
+        final List<SectionHeader> res = new ArrayList<>(getSectionCount());
+        for (int i = 0; i < getSectionCount(); i++) {
+            res.add(getSectionHeader(i));
+        }
+        return res;
+    }
+
+    // содержимое секции как окно в отображённый файл, без копирования
+    public ByteSource getSectionData(int index) {
+        final SectionHeader sectionHeader = getSectionHeader(index);
+        return source.slice(sectionHeader.getOffset(), sectionHeader.getSize());
+    }
+
+    // номер первой секции с таким именем или -1
+    public int findSection(String name) {
+        for (int i = 0; i < getSectionCount(); i++) {
+            if (getSectionName(i).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // номер первой секции с таким sh_type или -1
+    public int findSectionByType(int type) {
+        for (int i = 0; i < getSectionCount(); i++) {
+            if (getSectionHeader(i).getTypeCode() == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public StringTable getStringTable(int index) {
+        StringTable res = stringTables.get(index);
+        if (res == null) {
+            // заголовок таблицы имён секций читается без имени, иначе его разрешение зациклится
+            final SectionHeader sectionHeader = index == shstrtabIndex() ?
+                    parser().parseSectionHeader(header.getSHOffset(), index) : getSectionHeader(index);
+            res = parser().parseStringTable(sectionHeader);
+            final StringTable seen = stringTables.putIfAbsent(index, res);
+            if (seen != null) {
+                res = seen;
+            }
+        }
+        return res;
+    }
+
+    // поля таблицы символов читаются целиком, имена -- по мере обращения через таблицу строк по sh_link
+    public SymbolTable getSymbolTable(int index) {
+        SymbolTable res = symbolTables.get(index);
+        if (res == null) {
+            final SectionHeader symbolTableHeader = getSectionHeader(index);
+            res = parser().parseSymbolTable(symbolTableHeader, getStringTable(symbolTableHeader.getLink()));
+            final SymbolTable seen = symbolTables.putIfAbsent(index, res);
+            if (seen != null) {
+                res = seen;
+            }
+        }
+        return res;
+    }
+
+    // хеш-таблица динамических символов: .gnu.hash, если есть, иначе .hash; null, если нет ни одной
+    public SymbolHashTable getDynamicHashTable() {
+        SymbolHashTable res = dynamicHashTable;
+        if (res == null) {
+            int hashHeaderId = findSectionByType(SectionHeader.SHT_GNU_HASH);
+            if (hashHeaderId >= 0) {
+                final SectionHeader hashHeader = getSectionHeader(hashHeaderId);
+                res = parser().parseGnuHashTable(hashHeader, getSymbolTable(hashHeader.getLink()));
+            } else if ((hashHeaderId = findSectionByType(SectionHeader.SHT_HASH)) >= 0) {
+                final SectionHeader hashHeader = getSectionHeader(hashHeaderId);
+                res = parser().parseSysvHashTable(hashHeader, getSymbolTable(hashHeader.getLink()));
+            }
+            dynamicHashTable = res;
+        }
+        return res;
+    }
+}
@@ -0,0 +1,61 @@
+package elf;
+
+import java.nio.charset.StandardCharsets;
+
+// Секция .gnu.hash: nbuckets, symoffset, bloom_size, bloom_shift, bloom[bloom_size], buckets[nbuckets], chain[].
+// Фильтр Блума отсекает большинство отсутствующих имён, не трогая ни корзины, ни таблицу строк.
+public class GnuHashTable implements SymbolHashTable {
+    private final SymbolTable symbolTable;
+    private final int symbolOffset;
+    private final int bloomShift;
+    private final int[] bloom;
+    private final int[] buckets;
+    private final int[] chain;
+
+    public GnuHashTable(SymbolTable symbolTable, int symbolOffset, int bloomShift, int[] bloom, int[] buckets,
+                        int[] chain) {
+        this.symbolTable = symbolTable;
+        this.symbolOffset = symbolOffset;
+        this.bloomShift = bloomShift;
+        this.bloom = bloom;
+        this.buckets = buckets;
+        this.chain = chain;
+    }
+
+    @Override
+    public int find(String name) {
+        if (buckets.length == 0 || bloom.length == 0) {
+            return -1;
+        }
+        final int h = hash(name);
+        // для ELFCLASS32 слова фильтра 32-битные
+        final int word = bloom[Integer.remainderUnsigned(h >>> 5, bloom.length)];
+        final int mask = (1 << (h & 31)) | (1 << ((h >>> bloomShift) & 31));
+        if ((word & mask) != mask) {
+            return -1;
+        }
+        int i = buckets[Integer.remainderUnsigned(h, buckets.length)];
+        if (i < symbolOffset) {
+            return -1;
+        }
+        for (; i - symbolOffset < chain.length && i < symbolTable.size(); i++) {
+            final int chainHash = chain[i - symbolOffset];
+            if ((h | 1) == (chainHash | 1) && symbolTable.getName(i).equals(name)) {
+                return i;
+            }
+            // младший бит отмечает конец цепочки
+            if ((chainHash & 1) != 0) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    public static int hash(String name) {
+        int h = 5381;
+        for (byte b : name.getBytes(StandardCharsets.ISO_8859_1)) {
+            h = h * 33 + (b & 0xff);
+        }
+        return h;
+    }
+}
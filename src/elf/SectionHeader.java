@@ -1,9 +1,15 @@
 package elf;
 
 public class SectionHeader {
+    public static final int SHT_SYMTAB = 0x2;
+    public static final int SHT_HASH = 0x5;
+    public static final int SHT_DYNSYM = 0xb;
+    public static final int SHT_GNU_HASH = 0x6ffffff6;
+    public static final int SHF_EXECINSTR = 0x4;
 
     private int sh_name;
     private int sh_type;
+    private int sh_flags;
     private int sh_address;
     private int sh_offset;
     private int sh_size;
@@ -48,10 +54,15 @@ public class SectionHeader {
             case 0x10 -> "PREINIT_ARRAY";
             case 0x11 -> "GROUP";
             case 0x12 -> "SYMTAB_SHNDX";
+            case 0x6ffffff6 -> "GNU_HASH";
             default -> "UNKNOWN"; //"Unknown type";
         };
     }
 
+    public int getTypeCode() {
+        return sh_type;
+    }
+
     public void setType(int type) {
         if (type < 0) {
             throw new IllegalArgumentException("Section header type cannot be negative");
@@ -59,25 +70,40 @@ public class SectionHeader {
         this.sh_type = type;
     }
 
-    public int getOffset() {
+    public int getFlags() {
+        return sh_flags;
+    }
+
+    public void setFlags(int flags) {
+        this.sh_flags = flags;
+    }
+
+    public boolean isExecutable() {
+        return (sh_flags & SHF_EXECINSTR) != 0;
+    }
+
+    // sh_offset и sh_size беззнаковые: секции за 2 ГБ адресуются long'ом
+    public long getOffset() {
+        return Integer.toUnsignedLong(sh_offset);
+    }
+
+    public int getOffsetCode() {
         return sh_offset;
     }
 
     public void setOffset(int offset) {
-        if (offset < 0) {
-            throw new IllegalArgumentException("Section header offset cannot be negative");
-        }
         this.sh_offset = offset;
     }
 
-    public int getSize() {
+    public long getSize() {
+        return Integer.toUnsignedLong(sh_size);
+    }
+
+    public int getSizeCode() {
         return sh_size;
     }
 
     public void setSize(int size) {
-        if (size < 0) {
-            throw new IllegalArgumentException("Section header size cannot be negative");
-        }
         this.sh_size = size;
     }
 
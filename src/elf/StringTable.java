@@ -1,20 +1,65 @@
 package elf;
 
+import elf.parser.ByteSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Таблица строк читается прямо из отображённого файла, без копии секции.
+// Строки декодируются целиком как Latin-1 и запоминаются: по смещению -- для повторяющихся имён,
+// по позиции завершающего нуля -- для общих суффиксов (имя "o" внутри "foo" берётся из уже прочитанного).
+// Таблицу можно читать из нескольких потоков: источник читается по абсолютным позициям, кэши конкурентные.
 public class StringTable {
-    private final int[] data;
+    private static final int SCAN_CHUNK = 64;
+
+    private final ByteSource data;
+    private final Map<Integer, String> byOffset = new ConcurrentHashMap<>();
+    private final Map<Integer, String> byEnd = new ConcurrentHashMap<>();
 
-    public StringTable(int[] data) {
+    public StringTable(ByteSource data) {
         this.data = data;
     }
 
     public String getString(int offset) {
-        if (offset < 0 || offset > data.length) {
+        if (offset < 0 || offset > data.size()) {
             throw new IllegalArgumentException("invalid bounds for section header name table");
         }
-        StringBuilder res = new StringBuilder();
-        while (offset < data.length && data[offset] != 0) {
-            res.append((char) data[offset++]);
+        final String cached = byOffset.get(offset);
+        if (cached != null) {
+            return cached;
+        }
+        // байты строки до нуля или конца секции
+        byte[] buf = new byte[SCAN_CHUNK];
+        int length = 0;
+        long position = offset;
+        scan:
+        while (position < data.size()) {
+            final int n = (int) Math.min(SCAN_CHUNK, data.size() - position);
+            if (length + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, length + n));
+            }
+            data.get(position, buf, length, n);
+            for (int i = length; i < length + n; i++) {
+                if (buf[i] == 0) {
+                    length = i;
+                    break scan;
+                }
+            }
+            length += n;
+            position += n;
+        }
+        final int end = offset + length;
+        final String longest = byEnd.get(end);
+        final String res;
+        if (longest != null && longest.length() >= length) {
+            res = longest.substring(longest.length() - length);
+        } else {
+            res = new String(buf, 0, length, StandardCharsets.ISO_8859_1);
+            byEnd.merge(end, res, (a, b) -> a.length() >= b.length() ? a : b);
         }
-        return res.toString();
+        byOffset.put(offset, res);
+        return res;
     }
 }
@@ -0,0 +1,7 @@
+package elf;
+
+// Поиск символа по имени через хеш-таблицу самого ELF-файла (.hash или .gnu.hash)
+public interface SymbolHashTable {
+    // номер символа в таблице динамических символов или -1
+    int find(String name);
+}
@@ -0,0 +1,119 @@
+package elf;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Индексы поверх таблицы символов: интервалы [value, value + size) функций и объектов,
+// отсортированные по началу, -- для поиска символа, содержащего адрес, за O(log n),
+// и хеш-таблица по имени. Адреса в ELF беззнаковые, поэтому сравниваются как long.
+public class SymbolIndex {
+    private final SymbolTable symbolTable;
+    // индексы публикуются целиком после построения, поэтому искать можно из нескольких потоков
+    private volatile Intervals intervals;
+    private volatile Map<String, Integer> byName;
+
+    // индексы строятся при первом запросе своего вида: поиск только по адресам не разрешает имён
+    public SymbolIndex(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    private static class Intervals {
+        private final long[] starts;
+        private final long[] ends;
+        // максимальный конец среди интервалов 0..i: позволяет остановиться, не дойдя до начала
+        private final long[] maxEnds;
+        private final int[] symbols;
+
+        private Intervals(int count) {
+            starts = new long[count];
+            ends = new long[count];
+            maxEnds = new long[count];
+            symbols = new int[count];
+        }
+    }
+
+    private Intervals buildAddressIndex() {
+        final long[] keys = new long[symbolTable.size()];
+        int count = 0;
+        for (int i = 0; i < symbolTable.size(); i++) {
+            final int type = symbolTable.getTypeCode(i);
+            if ((type == SymbolTable.STT_FUNC || type == SymbolTable.STT_OBJECT) && symbolTable.getSize(i) != 0) {
+                // начало в старших битах, номер символа в младших: сортировка long'ов без объектов
+                keys[count++] = (Integer.toUnsignedLong(symbolTable.getValue(i)) << 32) | i;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        final Intervals res = new Intervals(count);
+        for (int j = 0; j < count; j++) {
+            res.symbols[j] = (int) keys[j];
+            res.starts[j] = keys[j] >>> 32;
+            res.ends[j] = res.starts[j] + Integer.toUnsignedLong(symbolTable.getSize(res.symbols[j]));
+            res.maxEnds[j] = j == 0 ? res.ends[j] : Math.max(res.maxEnds[j - 1], res.ends[j]);
+        }
+        return res;
+    }
+
+    private Map<String, Integer> buildNameIndex() {
+        final Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < symbolTable.size(); i++) {
+            final String name = symbolTable.getName(i);
+            if (name.isEmpty()) {
+                continue;
+            }
+            final Integer seen = byName.get(name);
+            // определённый символ важнее неопределённого (UND) с тем же именем
+            if (seen == null || symbolTable.getSectionHeaderIndexCode(seen) == 0 &&
+                    symbolTable.getSectionHeaderIndexCode(i) != 0) {
+                byName.put(name, i);
+            }
+        }
+        return byName;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    // номер самого внутреннего символа, содержащего адрес, или -1
+    public int findByAddress(int address) {
+        Intervals index = intervals;
+        if (index == null) {
+            intervals = index = buildAddressIndex();
+        }
+        final long at = Integer.toUnsignedLong(address);
+        int j = upperBound(index.starts, at) - 1;
+        while (j >= 0 && index.maxEnds[j] > at) {
+            if (index.ends[j] > at) {
+                return index.symbols[j];
+            }
+            j--;
+        }
+        return -1;
+    }
+
+    // номер символа с таким именем или -1
+    public int findByName(String name) {
+        Map<String, Integer> index = byName;
+        if (index == null) {
+            byName = index = buildNameIndex();
+        }
+        final Integer res = index.get(name);
+        return res == null ? -1 : res;
+    }
+
+    // первый интервал, начинающийся после at
+    private static int upperBound(long[] starts, long at) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= at) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,135 @@
+package elf;
+
+// Таблица символов по столбцам: поля всех записей лежат в примитивных массивах,
+// объекты на запись не создаются. Имена разрешаются через StringTable при первом обращении.
+// Столбцы после создания не меняются, поэтому таблицу можно читать из нескольких потоков.
+public class SymbolTable {
+    public static final int STT_OBJECT = 0x1;
+    public static final int STT_FUNC = 0x2;
+
+    private static final String[] TYPES = new String[16];
+    private static final String[] BINDINGS = new String[16];
+    private static final String[] VISIBILITIES = {"DEFAULT", "INTERNAL", "HIDDEN", "PROTECTED"};
+
+    static {
+        TYPES[0x0] = "NOTYPE";
+        TYPES[0x1] = "OBJECT";
+        TYPES[0x2] = "FUNC";
+        TYPES[0x3] = "SECTION";
+        TYPES[0x4] = "FILE";
+        TYPES[0x5] = "COMMON";
+        TYPES[0x6] = "TLS";
+        TYPES[0xa] = "LOOS";
+        TYPES[0xc] = "HIOS";
+        TYPES[0xd] = "LOPROC";
+        TYPES[0xf] = "HIPROC";
+        BINDINGS[0x0] = "LOCAL";
+        BINDINGS[0x1] = "GLOBAL";
+        BINDINGS[0x2] = "WEAK";
+        BINDINGS[0xa] = "LOOS";
+        BINDINGS[0xc] = "HIOS";
+        BINDINGS[0xd] = "LOPROC";
+        BINDINGS[0xf] = "HIPROC";
+    }
+
+    private final int[] nameOffsets;
+    private final int[] values;
+    private final int[] sizes;
+    private final byte[] information;
+    private final byte[] other;
+    private final short[] sectionHeaderIndexes;
+    private final String[] names;
+    private final StringTable stringTable;
+
+    // names может быть null, тогда все имена берутся из stringTable; иначе stringTable может быть null
+    public SymbolTable(int[] nameOffsets, int[] values, int[] sizes, byte[] information, byte[] other,
+                       short[] sectionHeaderIndexes, StringTable stringTable, String[] names) {
+        this.nameOffsets = nameOffsets;
+        this.values = values;
+        this.sizes = sizes;
+        this.information = information;
+        this.other = other;
+        this.sectionHeaderIndexes = sectionHeaderIndexes;
+        this.stringTable = stringTable;
+        this.names = names == null ? new String[nameOffsets.length] : names;
+    }
+
+    public int size() {
+        return nameOffsets.length;
+    }
+
+    public int getNameOffset(int index) {
+        return nameOffsets[index];
+    }
+
+    // гонка при разрешении имени безвредна: String неизменяем, а оба потока получат равные строки
+    public String getName(int index) {
+        if (names[index] == null) {
+            names[index] = stringTable.getString(nameOffsets[index]);
+        }
+        return names[index];
+    }
+
+    public SymbolTable resolveNames() {
+        for (int i = 0; i < names.length; i++) {
+            getName(i);
+        }
+        return this;
+    }
+
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    public int getSize(int index) {
+        return sizes[index];
+    }
+
+    public int getInformation(int index) {
+        return information[index] & 0xff;
+    }
+
+    public int getOther(int index) {
+        return other[index] & 0xff;
+    }
+
+    public int getSectionHeaderIndexCode(int index) {
+        return sectionHeaderIndexes[index] & 0xffff;
+    }
+
+    public int getTypeCode(int index) {
+        return information[index] & 0xf;
+    }
+
+    public String getType(int index) {
+        final String res = TYPES[getTypeCode(index)];
+        if (res == null) {
+            throw new AssertionError("unknown symbol type");
+        }
+        return res;
+    }
+
+    public String getBinding(int index) {
+        final String res = BINDINGS[getInformation(index) >> 4];
+        if (res == null) {
+            throw new AssertionError("unknown symbol binding");
+        }
+        return res;
+    }
+
+    public String getVisibility(int index) {
+        return VISIBILITIES[other[index] & 0x3];
+    }
+
+    public String getSectionHeaderIndex(int index) {
+        final int code = getSectionHeaderIndexCode(index);
+        return switch (code) {
+            case 0 -> "UND";
+            case 0xff20 -> "LOOS";
+            case 0xff3f -> "HIOS";
+            case 0xfff1 -> "ABS";
+            case 0xfff2 -> "COMMON";
+            default -> String.valueOf(code);
+        };
+    }
+}
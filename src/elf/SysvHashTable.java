@@ -0,0 +1,45 @@
+package elf;
+
+import java.nio.charset.StandardCharsets;
+
+// Секция .hash: nbucket, nchain, bucket[nbucket], chain[nchain]
+public class SysvHashTable implements SymbolHashTable {
+    private final SymbolTable symbolTable;
+    private final int[] buckets;
+    private final int[] chains;
+
+    public SysvHashTable(SymbolTable symbolTable, int[] buckets, int[] chains) {
+        this.symbolTable = symbolTable;
+        this.buckets = buckets;
+        this.chains = chains;
+    }
+
+    @Override
+    public int find(String name) {
+        if (buckets.length == 0) {
+            return -1;
+        }
+        // в цепочке не может быть больше записей, чем символов: защита от зацикленных таблиц
+        int steps = chains.length;
+        for (int i = buckets[Integer.remainderUnsigned(hash(name), buckets.length)];
+             i != 0 && i < chains.length && i < symbolTable.size() && steps-- > 0; i = chains[i]) {
+            if (symbolTable.getName(i).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int hash(String name) {
+        int h = 0;
+        for (byte b : name.getBytes(StandardCharsets.ISO_8859_1)) {
+            h = (h << 4) + (b & 0xff);
+            final int g = h & 0xf0000000;
+            if (g != 0) {
+                h ^= g >>> 24;
+            }
+            h &= ~g;
+        }
+        return h;
+    }
+}
@@ -3,28 +3,31 @@ package elf.parser;
 public class BaseParser {
     private final static int END = -1;
     private final ByteSource source;
-    private int cur;
+    private final long size;
+    private long pos;
 
     public BaseParser(final ByteSource source) {
         this.source = source;
-        take();
+        this.size = source.size();
+        this.pos = 0;
     }
 
     protected int take() {
-        final int res = cur;
-        cur = source.hasNext() ? source.next() : END;
-        return res;
+        return pos < size ? source.getByte(pos++) : END;
     }
 
     protected int take(final int[] buf, final int len) {
         if (buf.length < len) {
             throw error("Destination buffer size is too small");
         }
-        int i = 0;
-        while (i < len && !eof()) {
-            buf[i++] = take();
+        final int n = (int) Math.min(len, size - pos);
+        final byte[] tmp = new byte[n];
+        source.get(pos, tmp, 0, n);
+        for (int i = 0; i < n; i++) {
+            buf[i] = tmp[i] & 0xff;
         }
-        return i;
+        pos += n;
+        return n;
     }
 
     protected int[] takeLen(int len) {
@@ -39,27 +42,41 @@ public class BaseParser {
     }
 
     protected int takeWord() {
-        final int a = take();
-        final int b = take();
-        final int c = take();
-        final int d = take();
-        if (a < 0 || b < 0 || c < 0 || d < 0) {
+        if (pos + 4 > size) {
             throw error("Expected byte, EOF found");
         }
-        return a | (b << 0x8) | (c << 0x10) | (d << 0x18);
+        final int res = source.getInt(pos);
+        pos += 4;
+        return res;
+    }
+
+    protected int[] takeWords(int count) {
+        if (count < 0 || pos + 4L * count > size) {
+            throw error("Not enough bytes for " + count + " words");
+        }
+        final int[] res = new int[count];
+        for (int i = 0; i < count; i++) {
+            res[i] = source.getInt(pos);
+            pos += 4;
+        }
+        return res;
     }
 
     protected int takeHalf() {
-        final int a = take();
-        final int b = take();
-        if (a < 0 || b < 0) {
+        if (pos + 2 > size) {
             throw error("Expected byte, EOF found");
         }
-        return (a | (b << 0x8)) & 0xffff;
+        final int res = source.getShort(pos);
+        pos += 2;
+        return res;
+    }
+
+    protected int peek() {
+        return pos < size ? source.getByte(pos) : END;
     }
 
     protected boolean test(int expected) {
-        return cur == expected;
+        return peek() == expected;
     }
 
     protected boolean take(int expected) {
@@ -70,16 +87,33 @@ public class BaseParser {
         return false;
     }
 
-    protected void setPointer(int position) {
-        source.setPointer(position);
-        take();
+    protected void setPointer(long position) {
+        if (position < 0 || position >= size) {
+            throw error("Illegal pointer position: " + position);
+        }
+        pos = position;
+    }
+
+    protected long getPointer() {
+        return pos;
+    }
+
+    protected ByteSource slice(long offset, long length) {
+        if (offset < 0 || length < 0 || offset + length > size) {
+            throw error("Illegal section bounds: " + offset + ", length: " + length);
+        }
+        return source.slice(offset, length);
+    }
+
+    protected long remaining() {
+        return size - pos;
     }
 
     protected boolean eof() {
-        return take(END);
+        return pos >= size;
     }
 
     protected IllegalArgumentException error(final String message) {
-        return source.error(message);
+        return new IllegalArgumentException(message + " at pos: " + pos);
     }
 }
@@ -1,11 +1,16 @@
 package elf.parser;
 
 public interface ByteSource {
-    boolean hasNext();
+    long size();
 
-    int next();
+    int getByte(long position);
 
-    void setPointer(int position);
+    // беззнаковое little-endian полуслово
+    int getShort(long position);
 
-    IllegalArgumentException error(String message);
+    int getInt(long position);
+
+    void get(long position, byte[] dst, int offset, int length);
+
+    ByteSource slice(long offset, long length);
 }
@@ -0,0 +1,57 @@
+package elf.parser;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Обёртка, считающая прочитанные байты; окна разделяют счётчик исходного источника.
+// Используется только с --stats, чтобы обычный прогон не платил за лишний вызов на каждое чтение.
+public class CountingByteSource implements ByteSource {
+    private final ByteSource source;
+    private final LongAdder bytesRead;
+
+    public CountingByteSource(ByteSource source) {
+        this(source, new LongAdder());
+    }
+
+    private CountingByteSource(ByteSource source, LongAdder bytesRead) {
+        this.source = source;
+        this.bytesRead = bytesRead;
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long size() {
+        return source.size();
+    }
+
+    @Override
+    public int getByte(long position) {
+        bytesRead.increment();
+        return source.getByte(position);
+    }
+
+    @Override
+    public int getShort(long position) {
+        bytesRead.add(2);
+        return source.getShort(position);
+    }
+
+    @Override
+    public int getInt(long position) {
+        bytesRead.add(4);
+        return source.getInt(position);
+    }
+
+    @Override
+    public void get(long position, byte[] dst, int offset, int length) {
+        bytesRead.add(length);
+        source.get(position, dst, offset, length);
+    }
+
+    @Override
+    public ByteSource slice(long offset, long length) {
+        return new CountingByteSource(source.slice(offset, length), bytesRead);
+    }
+}
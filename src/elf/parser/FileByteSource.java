@@ -1,62 +1,69 @@
 package elf.parser;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Arrays;
 
 public class FileByteSource implements ByteSource {
     private final int[] buf;
-    private int pos;
-
-    public FileByteSource(String source) throws IOException {
-        try (final InputStream in = new FileInputStream(source)) {
-            final int fileSize = (int) new File(source).length();
-            if (fileSize == 0) {
-                throw error("File is empty");
-            }
-            buf = new int[fileSize];
-            final byte[] tmp = new byte[fileSize];
-            in.read(tmp);
-            for (int i = 0; i < fileSize; i++) {
-                buf[i] = ((int) tmp[i]) & 0xff;
-            }
-            pos = 0;
-        }
-    }
+    private final int start;
+    private final int size;
 
     public FileByteSource(int[] source) {
         if (source.length == 0) {
-            throw error("Data is empty");
+            throw new IllegalArgumentException("Data is empty");
         }
         buf = Arrays.copyOf(source, source.length);
-        pos = 0;
+        start = 0;
+        size = source.length;
+    }
+
+    private FileByteSource(int[] buf, int start, int size) {
+        this.buf = buf;
+        this.start = start;
+        this.size = size;
     }
 
     @Override
-    public boolean hasNext() {
-        return pos < buf.length;
+    public long size() {
+        return size;
     }
 
     @Override
-    public int next() {
-        if (!hasNext()) {
-            throw error("EOF reached but trying to read");
-        }
-        return buf[pos++];
+    public int getByte(long position) {
+        checkBounds(position, 1);
+        return buf[start + (int) position];
+    }
+
+    @Override
+    public int getShort(long position) {
+        checkBounds(position, 2);
+        final int at = start + (int) position;
+        return buf[at] | (buf[at + 1] << 0x8);
+    }
+
+    @Override
+    public int getInt(long position) {
+        checkBounds(position, 4);
+        final int at = start + (int) position;
+        return buf[at] | (buf[at + 1] << 0x8) | (buf[at + 2] << 0x10) | (buf[at + 3] << 0x18);
     }
 
     @Override
-    public void setPointer(int position) {
-        if (position < 0 || position >= buf.length) {
-            throw error("Illegal pointer position: " + position);
+    public void get(long position, byte[] dst, int offset, int length) {
+        checkBounds(position, length);
+        for (int i = 0; i < length; i++) {
+            dst[offset + i] = (byte) buf[start + (int) position + i];
         }
-        pos = position;
     }
 
     @Override
-    public IllegalArgumentException error(String message) {
-        return new IllegalArgumentException(message + " at pos: " + pos);
+    public ByteSource slice(long offset, long length) {
+        checkBounds(offset, length);
+        return new FileByteSource(buf, start + (int) offset, (int) length);
+    }
+
+    private void checkBounds(long position, long length) {
+        if (position < 0 || length < 0 || position + length > size) {
+            throw new IllegalArgumentException("Illegal pointer position: " + position + ", length: " + length);
+        }
     }
 }
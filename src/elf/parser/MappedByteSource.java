@@ -0,0 +1,95 @@
+package elf.parser;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MappedByteSource implements ByteSource {
+    // один MappedByteBuffer адресуется int'ом, поэтому файл отображается кусками по 1 ГБ
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    // куски перекрываются, чтобы слово на границе целиком лежало в одном куске
+    private static final int CHUNK_OVERLAP = 8;
+
+    private final MappedByteBuffer[] chunks;
+    private final long start;
+    private final long size;
+
+    public MappedByteSource(String source) throws IOException {
+        try (final FileChannel channel = FileChannel.open(Path.of(source), StandardOpenOption.READ)) {
+            size = channel.size();
+            if (size == 0) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                final long from = (long) i << CHUNK_SHIFT;
+                final long length = Math.min(size - from, (1L << CHUNK_SHIFT) + CHUNK_OVERLAP);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        start = 0;
+    }
+
+    private MappedByteSource(MappedByteBuffer[] chunks, long start, long size) {
+        this.chunks = chunks;
+        this.start = start;
+        this.size = size;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public int getByte(long position) {
+        checkBounds(position, 1);
+        final long at = start + position;
+        return chunks[(int) (at >>> CHUNK_SHIFT)].get((int) (at & CHUNK_MASK)) & 0xff;
+    }
+
+    @Override
+    public int getShort(long position) {
+        checkBounds(position, 2);
+        final long at = start + position;
+        return chunks[(int) (at >>> CHUNK_SHIFT)].getShort((int) (at & CHUNK_MASK)) & 0xffff;
+    }
+
+    @Override
+    public int getInt(long position) {
+        checkBounds(position, 4);
+        final long at = start + position;
+        return chunks[(int) (at >>> CHUNK_SHIFT)].getInt((int) (at & CHUNK_MASK));
+    }
+
+    @Override
+    public void get(long position, byte[] dst, int offset, int length) {
+        checkBounds(position, length);
+        long at = start + position;
+        while (length > 0) {
+            final int index = (int) (at & CHUNK_MASK);
+            final int n = (int) Math.min(length, (1L << CHUNK_SHIFT) - index);
+            chunks[(int) (at >>> CHUNK_SHIFT)].get(index, dst, offset, n);
+            at += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public MappedByteSource slice(long offset, long length) {
+        checkBounds(offset, length);
+        return new MappedByteSource(chunks, start + offset, length);
+    }
+
+    private void checkBounds(long position, long length) {
+        if (position < 0 || length < 0 || position + length > size) {
+            throw new IllegalArgumentException("Illegal pointer position: " + position + ", length: " + length);
+        }
+    }
+}
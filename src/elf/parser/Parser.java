@@ -1,25 +1,37 @@
 package elf.parser;
 
 import elf.ELFHeader;
+import elf.GnuHashTable;
 import elf.SectionHeader;
 import elf.StringTable;
-import elf.Symbol;
+import elf.SymbolTable;
+import elf.SysvHashTable;
+import riscv.Diagnostics;
 import riscv.Disassembler;
+import riscv.InstructionSink;
+import riscv.ParallelDisassembler;
 import riscv.RV32.Instruction;
+import riscv.RV32.InstructionStore;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Parser extends BaseParser {
+    private boolean rvcTable = true;
+
     public Parser(String source) throws IOException {
-        this(new FileByteSource(source));
+        this(new MappedByteSource(source));
     }
 
-    public Parser(FileByteSource source) {
+    public Parser(ByteSource source) {
         super(source);
     }
 
+    public void setRVCTable(boolean rvcTable) {
+        this.rvcTable = rvcTable;
+    }
+
     public ELFHeader parseELFHeader() {
         ELFHeader header = new ELFHeader();
         header.setMagic(takeLen(4));
@@ -38,55 +50,131 @@ public class Parser extends BaseParser {
         return header;
     }
 
-    public List<SectionHeader> parseSectionHeaders(int offset, int number, int shstrtabid) {
+    public List<SectionHeader> parseSectionHeaders(long offset, int number, int shstrtabid) {
         List<SectionHeader> res = new ArrayList<>();
         for (int i = 0; i < number; i++) {
-            SectionHeader sh = new SectionHeader();
-            setPointer(offset + 0x28 * i);
-            sh.setNameOffset(takeWord());
-            sh.setType(takeWord());
-            setPointer(offset + 0x28 * i + 0xc);
-            sh.setAddress(takeWord());
-            sh.setOffset(takeWord());
-            sh.setSize(takeWord());
-            sh.setLink(takeWord());
-            res.add(sh);
+            res.add(parseSectionHeader(offset, i));
         }
         if (shstrtabid < 0 || shstrtabid >= number) {
             throw error("Section header name table index is out of bounds");
         }
-        setPointer(res.get(shstrtabid).getOffset());
-        StringTable shstrtab = new StringTable(takeLen(res.get(shstrtabid).getSize()));
+        StringTable shstrtab = parseStringTable(res.get(shstrtabid));
         for (SectionHeader sh : res) {
             sh.setName(shstrtab.getString(sh.getNameOffset()));
         }
         return res;
     }
 
-    public List<Symbol> parseSymbolTable(SectionHeader symbolTableHeader, SectionHeader symbolNamesTableHeader) {
-        final int numberOfEntries = symbolTableHeader.getSize() / 16;
-        final List<Symbol> res = new ArrayList<>();
-        setPointer(symbolNamesTableHeader.getOffset());
-        final StringTable symbolNames = new StringTable(takeLen(symbolNamesTableHeader.getSize()));
-        setPointer(symbolTableHeader.getOffset());
+    // один заголовок секции без имени: имя разрешается отдельно по таблице имён секций
+    public SectionHeader parseSectionHeader(long offset, int index) {
+        SectionHeader sh = new SectionHeader();
+        setPointer(offset + 0x28L * index);
+        sh.setNameOffset(takeWord());
+        sh.setType(takeWord());
+        sh.setFlags(takeWord());
+        sh.setAddress(takeWord());
+        sh.setOffset(takeWord());
+        sh.setSize(takeWord());
+        sh.setLink(takeWord());
+        return sh;
+    }
+
+    public StringTable parseStringTable(SectionHeader stringTableHeader) {
+        return new StringTable(slice(stringTableHeader.getOffset(), stringTableHeader.getSize()));
+    }
+
+    public SymbolTable parseSymbolTable(SectionHeader symbolTableHeader, SectionHeader symbolNamesTableHeader) {
+        return parseSymbolTable(symbolTableHeader, parseStringTable(symbolNamesTableHeader));
+    }
+
+    // поля записей раскладываются по столбцам, имена не разрешаются
+    public SymbolTable parseSymbolTable(SectionHeader symbolTableHeader, StringTable symbolNames) {
+        final long entries = symbolTableHeader.getSize() / 16;
+        if (entries > Integer.MAX_VALUE) {
+            throw error("Symbol table is too large: " + entries + " entries");
+        }
+        final int numberOfEntries = (int) entries;
+        final int[] nameOffsets = new int[numberOfEntries];
+        final int[] values = new int[numberOfEntries];
+        final int[] sizes = new int[numberOfEntries];
+        final byte[] information = new byte[numberOfEntries];
+        final byte[] other = new byte[numberOfEntries];
+        final short[] sectionHeaderIndexes = new short[numberOfEntries];
+        if (numberOfEntries > 0) {
+            setPointer(symbolTableHeader.getOffset());
+        }
         for (int i = 0; i < numberOfEntries; i++) {
-            final Symbol symbol = new Symbol();
-            symbol.setNameOffset(takeWord());
-            symbol.setName(symbolNames.getString(symbol.getNameOffset()));
-            symbol.setValue(takeWord());
-            symbol.setSize(takeWord());
-            symbol.setInformation(take());
-            symbol.setOther(take());
-            symbol.setSectionHeaderIndex(takeHalf());
-            res.add(symbol);
+            nameOffsets[i] = takeWord();
+            if (nameOffsets[i] < 0) {
+                throw error("symbol table name cannot be negative");
+            }
+            // st_value и st_size беззнаковые: адреса от 0x80000000 -- обычное дело для RV32
+            values[i] = takeWord();
+            sizes[i] = takeWord();
+            information[i] = (byte) take();
+            other[i] = (byte) take();
+            sectionHeaderIndexes[i] = (short) takeHalf();
         }
-        return res;
+        return new SymbolTable(nameOffsets, values, sizes, information, other, sectionHeaderIndexes,
+                symbolNames, null);
+    }
+
+    public SysvHashTable parseSysvHashTable(SectionHeader hashHeader, SymbolTable symbolTable) {
+        setPointer(hashHeader.getOffset());
+        final int numberOfBuckets = takeWord();
+        final int numberOfChains = takeWord();
+        if (8L + 4L * numberOfBuckets + 4L * numberOfChains > hashHeader.getSize()) {
+            throw error("Hash table is larger than its section");
+        }
+        return new SysvHashTable(symbolTable, takeWords(numberOfBuckets), takeWords(numberOfChains));
+    }
+
+    // размер цепочек в заголовке не хранится: они занимают остаток секции
+    public GnuHashTable parseGnuHashTable(SectionHeader hashHeader, SymbolTable symbolTable) {
+        setPointer(hashHeader.getOffset());
+        final int numberOfBuckets = takeWord();
+        final int symbolOffset = takeWord();
+        final int bloomSize = takeWord();
+        final int bloomShift = takeWord();
+        final long chainBytes = hashHeader.getSize() - 16L - 4L * bloomSize - 4L * numberOfBuckets;
+        if (numberOfBuckets < 0 || bloomSize < 0 || chainBytes < 0) {
+            throw error("GNU hash table is larger than its section");
+        }
+        return new GnuHashTable(symbolTable, symbolOffset, bloomShift, takeWords(bloomSize),
+                takeWords(numberOfBuckets), takeWords((int) (chainBytes / 4)));
+    }
+
+    public int verifyRVCTable(SectionHeader textHeader) {
+        return Disassembler.verifyRVCTable(slice(textHeader.getOffset(), textHeader.getSize()),
+                textHeader.getAddress());
     }
 
     public List<Instruction> parseText(SectionHeader textHeader, boolean quiet) {
-        setPointer(textHeader.getOffset());
-        Disassembler disassembler = new Disassembler(takeLen(textHeader.getSize()), quiet);
+        Disassembler disassembler = new Disassembler(slice(textHeader.getOffset(), textHeader.getSize()),
+                quiet, rvcTable);
+        return disassembler.disassemble(textHeader.getAddress());
+    }
+
+    public List<InstructionStore> parseTextParallel(SectionHeader textHeader, boolean quiet) {
+        return parseTextParallel(textHeader, quiet, null);
+    }
+
+    public List<InstructionStore> parseTextParallel(SectionHeader textHeader, boolean quiet,
+                                                    Diagnostics diagnostics) {
+        ParallelDisassembler disassembler = new ParallelDisassembler(
+                slice(textHeader.getOffset(), textHeader.getSize()), quiet, rvcTable,
+                ParallelDisassembler.DEFAULT_CHUNK_SIZE, diagnostics);
         return disassembler.disassemble(textHeader.getAddress());
     }
 
+    public void parseText(SectionHeader textHeader, boolean quiet, InstructionSink sink) {
+        parseText(textHeader, quiet, null, sink);
+    }
+
+    public void parseText(SectionHeader textHeader, boolean quiet, Diagnostics diagnostics, InstructionSink sink) {
+        Disassembler disassembler = new Disassembler(slice(textHeader.getOffset(), textHeader.getSize()),
+                quiet, rvcTable, diagnostics);
+        disassembler.disassemble(textHeader.getAddress(), sink);
+    }
+
 }
@@ -0,0 +1,162 @@
+package elf.reader;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Обрабатывает много входных файлов в одной JVM; ошибка в одном файле не прерывает остальные
+public class BatchReader {
+    private final Flags flags;
+    private final List<Path> inputs;
+    private final List<Path> outputs;
+    private final Path outputDirectory;
+    private final int jobs;
+
+    public BatchReader(String[] args) throws IOException {
+        final List<String> flagArgs = new ArrayList<>();
+        final Set<Path> files = new LinkedHashSet<>();
+        Path out = Path.of("elfreader-out");
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--batch" -> {
+                }
+                case "--jobs" -> threads = Integer.parseInt(argument(args, ++i, "--jobs"));
+                case "--out-dir" -> out = Path.of(argument(args, ++i, "--out-dir"));
+                case "--cache-dir", "--cache-limit", "--diagnostics-limit" -> {
+                    flagArgs.add(args[i]);
+                    flagArgs.add(argument(args, ++i, args[i - 1]));
+                }
+                default -> {
+                    if (args[i].startsWith("-")) {
+                        flagArgs.add(args[i]);
+                    } else {
+                        files.addAll(expand(args[i]));
+                    }
+                }
+            }
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of jobs must be positive: " + threads);
+        }
+        flags = new Flags();
+        Reader.parseFlags(flagArgs.toArray(new String[0]), flags);
+        flags.inline = false;
+        if (flags.lookup && flags.lookupQueries == null) {
+            // стандартный ввод один на все файлы: запросы читаются один раз и задаются каждому файлу
+            flags.lookupQueries = new String(System.in.readAllBytes(), Charset.defaultCharset());
+        }
+        inputs = List.copyOf(files);
+        outputDirectory = out;
+        jobs = threads;
+        outputs = new ArrayList<>();
+        final Map<String, Integer> names = new HashMap<>();
+        for (Path input : inputs) {
+            final String name = input.getFileName().toString();
+            final int seen = names.merge(name, 1, Integer::sum);
+            outputs.add(outputDirectory.resolve(seen == 1 ? name + ".out" : name + "-" + seen + ".out"));
+        }
+    }
+
+    private static String argument(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Expected value after " + option);
+        }
+        return args[i];
+    }
+
+    // файл, каталог (рекурсивно), шаблон вида dir/*.elf или @файл со списком путей
+    private static List<Path> expand(String arg) throws IOException {
+        if (arg.startsWith("@")) {
+            final List<Path> res = new ArrayList<>();
+            for (String line : Files.readAllLines(Path.of(arg.substring(1)))) {
+                if (!line.isBlank()) {
+                    res.addAll(expand(line.strip()));
+                }
+            }
+            return res;
+        }
+        if (arg.contains("*") || arg.contains("?") || arg.contains("[") || arg.contains("{")) {
+            final Path base = globBase(arg);
+            final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + arg);
+            try (final Stream<Path> walk = Files.walk(base)) {
+                return walk.filter(Files::isRegularFile)
+                        .filter(matcher::matches)
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        }
+        final Path path = Path.of(arg);
+        if (Files.isDirectory(path)) {
+            try (final Stream<Path> walk = Files.walk(path)) {
+                return walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+        }
+        return List.of(path);
+    }
+
+    private static Path globBase(String glob) {
+        Path base = Path.of("");
+        for (String part : glob.split("/")) {
+            if (part.contains("*") || part.contains("?") || part.contains("[") || part.contains("{")) {
+                break;
+            }
+            base = base.resolve(part);
+        }
+        return glob.startsWith("/") ? Path.of("/").resolve(base) : base;
+    }
+
+    public int run() throws IOException, InterruptedException {
+        Files.createDirectories(outputDirectory);
+        final ExecutorService pool = Executors.newFixedThreadPool(jobs);
+        final List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < inputs.size(); i++) {
+                final Path input = inputs.get(i);
+                final Path output = outputs.get(i);
+                results.add(pool.submit(() -> {
+                    process(input, output);
+                    return null;
+                }));
+            }
+            final List<String> failures = new ArrayList<>();
+            for (int i = 0; i < inputs.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    failures.add(inputs.get(i) + ": " + cause.getClass().getSimpleName() + ": " + cause.getMessage());
+                }
+            }
+            System.out.printf("Processed %d files: %d succeeded, %d failed%n", inputs.size(),
+                    inputs.size() - failures.size(), failures.size());
+            for (String failure : failures) {
+                System.out.println("  " + failure);
+            }
+            return failures.size();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void process(Path input, Path output) throws IOException {
+        final Reader reader = new Reader(flags, input.toString(), output.toString());
+        reader.read();
+        reader.writeOutput();
+    }
+}
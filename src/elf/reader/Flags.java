@@ -1,5 +1,7 @@
 package elf.reader;
 
+import riscv.Diagnostics;
+
 public class Flags {
     public boolean all;
     public boolean inline;
@@ -9,6 +11,21 @@ public class Flags {
     public boolean text;
     public boolean quiet;
     public boolean specialForVictoria;
+    public boolean compact;
+    public boolean pipeline;
+    public boolean parallel;
+    public boolean parallelSections;
+    public boolean allCode;
+    public boolean rvcSwitch;
+    public boolean verifyRVC;
+    public boolean lookup;
+    // запросы -l, прочитанные заранее; если null, они читаются из стандартного ввода
+    public String lookupQueries;
+    public boolean stats;
+    public boolean diagnostics;
+    public int diagnosticsLimit = Diagnostics.DEFAULT_LIMIT;
+    public String cacheDirectory;
+    public long cacheLimit = 1024L << 20;
 
     public Flags() {
         this(false, false, false, false, false, false, false, false);
@@ -0,0 +1,317 @@
+package elf.reader;
+
+import elf.ELFHeader;
+import elf.SectionHeader;
+import elf.SymbolTable;
+import riscv.RV32.InstructionStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Кэш результатов разбора на диске. Ключ -- SHA-256 содержимого входного файла, значение -- ParsedFile
+// в двоичном виде, который при следующих запусках отображается в память и читается без декодирования.
+// Запись идёт во временный файл с последующим атомарным переименованием, поэтому несколько процессов
+// могут писать в один каталог одновременно. Когда суммарный размер превышает предел, удаляются файлы,
+// к которым дольше всего не обращались.
+public class ParseCache {
+    private static final int MAGIC = 0x43464c45; // "ELFC"
+    private static final int VERSION = 3;
+    private static final String SUFFIX = ".elfc";
+    private static final int HASH_CHUNK = 1 << 30;
+
+    private final Path directory;
+    private final long limit;
+
+    public ParseCache(Path directory, long limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Cache limit must be positive: " + limit);
+        }
+        this.directory = directory;
+        this.limit = limit;
+    }
+
+    public ParsedFile get(String path, boolean rvcTable) throws IOException {
+        Files.createDirectories(directory);
+        final Path entry = directory.resolve(contentHash(Path.of(path)) + (rvcTable ? "" : "-switch") + SUFFIX);
+        final ParsedFile cached = load(entry);
+        if (cached != null) {
+            return cached;
+        }
+        final ParsedFile res = ParsedFile.load(path, rvcTable);
+        store(entry, res);
+        evict();
+        return res;
+    }
+
+    private static String contentHash(Path file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            for (long from = 0; from < size; from += HASH_CHUNK) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(HASH_CHUNK, size - from)));
+            }
+        }
+        final StringBuilder res = new StringBuilder();
+        for (byte b : digest.digest()) {
+            res.append(String.format("%02x", b));
+        }
+        return res.toString();
+    }
+
+    // повреждённая или устаревшая запись считается промахом и будет перезаписана
+    private static ParsedFile load(Path entry) {
+        try (final FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            final MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            final ParsedFile res = read(in);
+            try {
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ignored) {
+                // запись могли удалить при вытеснении, но она уже прочитана
+            }
+            return res;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ParsedFile read(ByteBuffer in) {
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IllegalArgumentException("Unsupported cache entry");
+        }
+        final ELFHeader header = new ELFHeader();
+        header.setMagic(new int[]{in.getInt(), in.getInt(), in.getInt(), in.getInt()});
+        header.setClass(in.getInt());
+        header.setData(in.getInt());
+        header.setType(in.getInt());
+        header.setMachine(in.getInt());
+        header.setSHoff(in.getInt());
+        header.setFlags(in.getInt());
+        header.setSHsize(in.getInt());
+        header.setSHnum(in.getInt());
+        header.setSHstrIndex(in.getInt());
+        List<SectionHeader> sectionHeaders = null;
+        final int sectionCount = in.getInt();
+        if (sectionCount >= 0) {
+            sectionHeaders = new ArrayList<>(sectionCount);
+            for (int i = 0; i < sectionCount; i++) {
+                final SectionHeader sectionHeader = new SectionHeader();
+                sectionHeader.setNameOffset(in.getInt());
+                sectionHeader.setType(in.getInt());
+                sectionHeader.setAddress(in.getInt());
+                sectionHeader.setOffset(in.getInt());
+                sectionHeader.setSize(in.getInt());
+                sectionHeader.setLink(in.getInt());
+                sectionHeader.setFlags(in.getInt());
+                sectionHeader.setName(getString(in));
+                sectionHeaders.add(sectionHeader);
+            }
+        }
+        final int textIndex = in.getInt();
+        final SectionHeader textHeader = textIndex < 0 ? null : sectionHeaders.get(textIndex);
+        SymbolTable symbolTable = null;
+        final int symbolCount = in.getInt();
+        if (symbolCount >= 0) {
+            final int[] nameOffsets = getInts(in, symbolCount);
+            final int[] values = getInts(in, symbolCount);
+            final int[] sizes = getInts(in, symbolCount);
+            final byte[] information = new byte[symbolCount];
+            final byte[] other = new byte[symbolCount];
+            final short[] sectionHeaderIndexes = new short[symbolCount];
+            in.get(information).get(other);
+            in.asShortBuffer().get(sectionHeaderIndexes);
+            in.position(in.position() + 2 * symbolCount);
+            final String[] names = new String[symbolCount];
+            for (int i = 0; i < symbolCount; i++) {
+                names[i] = getString(in);
+            }
+            symbolTable = new SymbolTable(nameOffsets, values, sizes, information, other, sectionHeaderIndexes,
+                    null, names);
+        }
+        final InstructionStore text = in.get() == 0 ? null : InstructionStore.readFrom(in);
+        return new ParsedFile(header, sectionHeaders, symbolTable, textHeader, text);
+    }
+
+    private void store(Path entry, ParsedFile file) throws IOException {
+        final long size = serializedSize(file);
+        if (size > limit || size > Integer.MAX_VALUE) {
+            return;
+        }
+        final Path temp = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+        try {
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                final MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                out.order(ByteOrder.LITTLE_ENDIAN);
+                write(out, file);
+                out.force();
+            }
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static long serializedSize(ParsedFile file) {
+        long res = 4 * (2 + 13 + 3) + 1;
+        if (file.getSectionHeaders() != null) {
+            for (SectionHeader sectionHeader : file.getSectionHeaders()) {
+                res += 4 * 8 + sectionHeader.getName().length();
+            }
+        }
+        if (file.getSymbolTable() != null) {
+            final SymbolTable symbolTable = file.getSymbolTable();
+            for (int i = 0; i < symbolTable.size(); i++) {
+                res += 4 * 3 + 1 + 1 + 2 + 4 + symbolTable.getName(i).length();
+            }
+        }
+        if (file.getText() != null) {
+            res += file.getText().serializedSize();
+        }
+        return res;
+    }
+
+    private static void write(ByteBuffer out, ParsedFile file) {
+        out.putInt(MAGIC).putInt(VERSION);
+        final ELFHeader header = file.getHeader();
+        for (int b : header.getMagicBytes()) {
+            out.putInt(b);
+        }
+        out.putInt(header.getClassCode()).putInt(header.getDataCode()).putInt(header.getTypeCode())
+                .putInt(header.getMachineCode()).putInt(header.getSHOffsetCode()).putInt(header.getFlagsCode())
+                .putInt(header.getSHSize()).putInt(header.getSHNumber()).putInt(header.getSHStringTableIndex());
+        final List<SectionHeader> sectionHeaders = file.getSectionHeaders();
+        out.putInt(sectionHeaders == null ? -1 : sectionHeaders.size());
+        int textIndex = -1;
+        if (sectionHeaders != null) {
+            for (int i = 0; i < sectionHeaders.size(); i++) {
+                final SectionHeader sectionHeader = sectionHeaders.get(i);
+                out.putInt(sectionHeader.getNameOffset()).putInt(sectionHeader.getTypeCode())
+                        .putInt(sectionHeader.getAddress()).putInt(sectionHeader.getOffsetCode())
+                        .putInt(sectionHeader.getSizeCode()).putInt(sectionHeader.getLink())
+                        .putInt(sectionHeader.getFlags());
+                putString(out, sectionHeader.getName());
+                if (sectionHeader == file.getTextHeader()) {
+                    textIndex = i;
+                }
+            }
+        }
+        out.putInt(textIndex);
+        final SymbolTable symbolTable = file.getSymbolTable();
+        out.putInt(symbolTable == null ? -1 : symbolTable.size());
+        if (symbolTable != null) {
+            for (int i = 0; i < symbolTable.size(); i++) {
+                out.putInt(symbolTable.getNameOffset(i));
+            }
+            for (int i = 0; i < symbolTable.size(); i++) {
+                out.putInt(symbolTable.getValue(i));
+            }
+            for (int i = 0; i < symbolTable.size(); i++) {
+                out.putInt(symbolTable.getSize(i));
+            }
+            for (int i = 0; i < symbolTable.size(); i++) {
+                out.put((byte) symbolTable.getInformation(i));
+            }
+            for (int i = 0; i < symbolTable.size(); i++) {
+                out.put((byte) symbolTable.getOther(i));
+            }
+            for (int i = 0; i < symbolTable.size(); i++) {
+                out.putShort((short) symbolTable.getSectionHeaderIndexCode(i));
+            }
+            for (int i = 0; i < symbolTable.size(); i++) {
+                putString(out, symbolTable.getName(i));
+            }
+        }
+        out.put((byte) (file.getText() == null ? 0 : 1));
+        if (file.getText() != null) {
+            file.getText().writeTo(out);
+        }
+    }
+
+    private static int[] getInts(ByteBuffer in, int count) {
+        final int[] res = new int[count];
+        in.asIntBuffer().get(res);
+        in.position(in.position() + 4 * count);
+        return res;
+    }
+
+    // имена в ELF читаются побайтно, поэтому Latin-1 сохраняет их без потерь
+    private static void putString(ByteBuffer out, String s) {
+        out.putInt(s.length()).put(s.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String getString(ByteBuffer in) {
+        final byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    // удаляет записи, к которым дольше всего не обращались, пока суммарный размер больше предела
+    private void evict() throws IOException {
+        final List<Path> paths;
+        try (final Stream<Path> list = Files.list(directory)) {
+            paths = list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).collect(Collectors.toList());
+        }
+        final List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        for (Path path : paths) {
+            try {
+                final Entry entry = new Entry(path, Files.getLastModifiedTime(path), Files.size(path));
+                entries.add(entry);
+                total += entry.size;
+            } catch (NoSuchFileException ignored) {
+                // запись уже удалил другой процесс
+            }
+        }
+        entries.sort(Comparator.comparing(entry -> entry.accessed));
+        for (Entry entry : entries) {
+            if (total <= limit) {
+                break;
+            }
+            Files.deleteIfExists(entry.path);
+            total -= entry.size;
+        }
+    }
+
+    private static class Entry {
+        private final Path path;
+        private final FileTime accessed;
+        private final long size;
+
+        private Entry(Path path, FileTime accessed, long size) {
+            this.path = path;
+            this.accessed = accessed;
+            this.size = size;
+        }
+    }
+}
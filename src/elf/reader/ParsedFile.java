@@ -0,0 +1,58 @@
+package elf.reader;
+
+import elf.ELFHeader;
+import elf.SectionHeader;
+import elf.SymbolTable;
+import riscv.RV32.InstructionStore;
+
+import java.io.IOException;
+import java.util.List;
+
+// Результат разбора файла целиком (как с -a -q), который можно переиспользовать между запросами.
+// После создания не изменяется, поэтому его могут одновременно читать несколько Reader'ов.
+public class ParsedFile {
+    private final ELFHeader header;
+    private final List<SectionHeader> sectionHeaders;
+    private final SymbolTable symbolTable;
+    private final SectionHeader textHeader;
+    private final InstructionStore text;
+
+    ParsedFile(ELFHeader header, List<SectionHeader> sectionHeaders, SymbolTable symbolTable,
+               SectionHeader textHeader, InstructionStore text) {
+        this.header = header;
+        this.sectionHeaders = sectionHeaders == null ? null : List.copyOf(sectionHeaders);
+        this.symbolTable = symbolTable == null ? null : symbolTable.resolveNames();
+        this.textHeader = textHeader;
+        this.text = text;
+    }
+
+    public static ParsedFile load(String path, boolean rvcTable) throws IOException {
+        final Flags flags = new Flags();
+        flags.header = flags.sectionHeaders = flags.symbolTable = flags.text = true;
+        flags.quiet = true;
+        flags.rvcSwitch = !rvcTable;
+        final Reader reader = new Reader(flags, path, null);
+        reader.read();
+        return reader.snapshot();
+    }
+
+    public ELFHeader getHeader() {
+        return header;
+    }
+
+    public List<SectionHeader> getSectionHeaders() {
+        return sectionHeaders;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public SectionHeader getTextHeader() {
+        return textHeader;
+    }
+
+    public InstructionStore getText() {
+        return text;
+    }
+}
@@ -1,32 +1,99 @@
 package elf.reader;
 
 import elf.ELFHeader;
+import elf.ElfFile;
 import elf.SectionHeader;
-import elf.Symbol;
+import elf.SymbolHashTable;
+import elf.SymbolIndex;
+import elf.SymbolTable;
+import elf.parser.ByteSource;
+import elf.parser.CountingByteSource;
+import elf.parser.MappedByteSource;
 import elf.parser.Parser;
+import riscv.Diagnostics;
+import riscv.Labels;
 import riscv.RV32.Commands;
 import riscv.RV32.Instruction;
+import riscv.RV32.InstructionFormatter;
+import riscv.RV32.InstructionStore;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.util.HashMap;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static java.lang.System.exit;
 
 public class Reader {
-    private final Parser parser;
+    private static final int PIPELINE_CHUNK = 4096;
+    private static final int PIPELINE_DEPTH = 16;
+    private static final InstructionStore END_OF_TEXT = new InstructionStore(1);
+    private static final ByteBuffer END_OF_OUTPUT = ByteBuffer.allocate(0);
+    private static final boolean[] BRANCHES = new boolean[Commands.values().length];
+    private static final int[] LENGTHS = new int[Commands.values().length];
+
+    static {
+        for (Commands command : List.of(Commands.JAL, Commands.C_JAL, Commands.C_J,
+                Commands.BEQ, Commands.BNE, Commands.BLT, Commands.BLTU, Commands.BGE, Commands.BGEU,
+                Commands.C_BEQZ, Commands.C_BNEZ)) {
+            BRANCHES[command.ordinal()] = true;
+        }
+        for (Commands command : Commands.values()) {
+            LENGTHS[command.ordinal()] =
+                    command.toString().startsWith("C_") || command == Commands.UNKNOWN ? 0x2 : 0x4;
+        }
+    }
+
+    private final ByteSource source;
+    private Parser parser;
+    private ElfFile elf;
+    private final ParsedFile cached;
     private final String readFrom;
     private final String writeTo;
-    private Flags flags;
+    private final Flags flags;
+    private final Stats stats;
+    private final Diagnostics diagnostics;
     private ELFHeader header;
     private List<SectionHeader> sectionHeaders;
-    private List<Symbol> symbolTable;
-    private List<Instruction> text;
-    private int textAddress;
+    private SymbolTable symbolTable;
+    private SymbolHashTable hashTable;
+    private InstructionStore decodedText;
+    private SectionHeader textHeader;
+    private List<SectionHeader> codeHeaders;
+    private List<InstructionStore> decodedCode;
+    private Labels labels;
+    private int[] labelAddresses;
+    private int nextLabel;
+    private int address;
+    private final InstructionFormatter formatter = new InstructionFormatter();
     private boolean symtabOk;
     private boolean textOk;
 
@@ -35,9 +102,19 @@ public class Reader {
         if (args.length == 0) {
             printHelp();
         }
-        final int offset = parseFlags(args);
-        parser = new Parser(args[offset]);
+        flags = new Flags();
+        final int offset = parseFlags(args, flags);
         readFrom = args[offset];
+        stats = new Stats(flags.stats, readFrom);
+        diagnostics = flags.diagnostics ? new Diagnostics(flags.diagnosticsLimit) : null;
+        final Stats.Span open = stats.begin(Stats.Phase.OPEN);
+        cached = fromCache(flags, readFrom);
+        source = cached == null ? openSource(flags, readFrom) : null;
+        parser = cached == null ? new Parser(source) : null;
+        if (parser != null) {
+            parser.setRVCTable(!flags.rvcSwitch);
+        }
+        open.end();
         if (!flags.inline) {
             if (offset + 1 >= args.length) {
                 throw new IllegalArgumentException("Expected output file name");
@@ -49,8 +126,53 @@ public class Reader {
         symtabOk = textOk = true;
     }
 
-    private int parseFlags(String[] args) {
-        flags = new Flags();
+    public Reader(Flags flags, String readFrom, String writeTo) throws IOException {
+        this.flags = flags;
+        this.readFrom = readFrom;
+        this.writeTo = writeTo;
+        stats = new Stats(flags.stats, readFrom);
+        diagnostics = flags.diagnostics ? new Diagnostics(flags.diagnosticsLimit) : null;
+        final Stats.Span open = stats.begin(Stats.Phase.OPEN);
+        cached = fromCache(flags, readFrom);
+        source = cached == null ? openSource(flags, readFrom) : null;
+        parser = cached == null ? new Parser(source) : null;
+        if (parser != null) {
+            parser.setRVCTable(!flags.rvcSwitch);
+        }
+        open.end();
+        symtabOk = textOk = true;
+    }
+
+    // файл уже разобран, поэтому Parser не нужен; вывод только через writeOutput(channel)
+    public Reader(Flags flags, ParsedFile file, String readFrom) {
+        this.flags = flags;
+        this.readFrom = readFrom;
+        this.writeTo = null;
+        stats = new Stats(flags.stats, readFrom);
+        diagnostics = null;
+        cached = file;
+        source = null;
+        parser = null;
+        symtabOk = textOk = true;
+    }
+
+    // с --stats чтения считаются, иначе источник не оборачивается
+    private static ByteSource openSource(Flags flags, String readFrom) throws IOException {
+        final ByteSource res = new MappedByteSource(readFrom);
+        return flags.stats ? new CountingByteSource(res) : res;
+    }
+
+    private static ParsedFile fromCache(Flags flags, String readFrom) throws IOException {
+        // в кэше хранится только декодированный .text, без ошибок декодирования и исходных байтов,
+        // и только .symtab: для -l в урезанных файлах нужны .dynsym и хеш-таблицы
+        if (flags.cacheDirectory == null || flags.allCode || flags.diagnostics || flags.verifyRVC ||
+                flags.lookup) {
+            return null;
+        }
+        return new ParseCache(Path.of(flags.cacheDirectory), flags.cacheLimit).get(readFrom, !flags.rvcSwitch);
+    }
+
+    public static int parseFlags(String[] args, Flags flags) {
         int i = 0;
         while (i < args.length && args[i].startsWith("-")) {
             switch (args[i]) {
@@ -62,12 +184,31 @@ public class Reader {
                 case "-s", "--symtab" -> flags.symbolTable = true;
                 case "-t", "--text" -> flags.text = true;
                 case "-q", "--quiet" -> flags.quiet = true;
+                case "-c", "--compact" -> flags.compact = true;
+                case "-p", "--pipeline" -> flags.pipeline = true;
+                case "-j", "--parallel" -> flags.parallel = true;
+                case "-P", "--parallel-sections" -> flags.parallelSections = true;
+                case "-x", "--exec-sections" -> flags.allCode = true;
+                case "--stats" -> flags.stats = true;
+                case "-d", "--diagnostics" -> flags.diagnostics = true;
+                case "--diagnostics-limit" -> flags.diagnosticsLimit = Integer.parseInt(flagValue(args, ++i));
+                case "--rvc-switch" -> flags.rvcSwitch = true;
+                case "--verify-rvc" -> flags.verifyRVC = true;
+                case "-l", "--lookup" -> flags.lookup = true;
+                case "--cache-dir" -> flags.cacheDirectory = flagValue(args, ++i);
+                case "--cache-limit" -> flags.cacheLimit = Long.parseLong(flagValue(args, ++i)) << 20;
             }
             i++;
         }
         if (flags.all) {
             flags.header = flags.sectionHeaders = flags.symbolTable = flags.text = true;
         }
+        if (flags.allCode) {
+            flags.text = true;
+        }
+        if (flags.diagnostics) {
+            flags.quiet = true;
+        }
 //        Вывод в формате для домашней работы
 //        if (i == 0 && args.length == 2) {
 //            flags.specialForVictoria = true;
@@ -79,12 +220,22 @@ public class Reader {
         return i;
     }
 
-    private void printHelp() {
+    private static String flagValue(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Expected value after " + args[i - 1]);
+        }
+        return args[i];
+    }
+
+    private static void printHelp() {
         System.out.println("Утилита для чтения и дизассемблирования ELF-файлов.");
         System.out.println("Доступно декодирование заголовка ELF-файла, таблицы секций и таблицы меток.");
         System.out.println("Поддерживается дизассемблирование только RISC-V 32I/M/C архитектуры.");
         System.out.println("Использование:");
         System.out.println("  java -jar elfreader.jar [аргументы] <имя входного файла> [имя выходного файла]");
+        System.out.println("  java -jar elfreader.jar --batch [--jobs N] [--out-dir каталог] [аргументы] " +
+                "<файлы, каталоги, шаблоны или @список>...");
+        System.out.println("  java -jar elfreader.jar --server <путь к сокету> [--cache N] [--jobs N]");
         System.out.println("Флаги/аргументы:");
         System.out.println("  \"-h\", \"--help\" -- отобразить текущее сообщение");
         System.out.println("  \"-i\", \"--inline\" -- выбрать режим вывода в консоль. В этом случае имя выходного " +
@@ -95,190 +246,748 @@ public class Reader {
         System.out.println("  \"-t\", \"--text\" -- дизассемблировать и выводить секцию .text");
         System.out.println("  \"-a\", \"--all\" -- то же самое, что \"-H -S -s -t\"");
         System.out.println("  \"-q\", \"--quiet\" -- не бросать некритические исключения, а выводить их в файл");
+        System.out.println("  \"-c\", \"--compact\" -- дизассемблировать .text один раз в компактное хранилище " +
+                "команд и выводить из него");
+        System.out.println("  \"-p\", \"--pipeline\" -- декодировать, форматировать и записывать .text " +
+                "параллельно в разных потоках");
+        System.out.println("  \"-j\", \"--parallel\" -- дизассемблировать .text по кускам параллельно");
+        System.out.println("  \"-P\", \"--parallel-sections\" -- разбирать таблицу символов и дизассемблировать " +
+                ".text параллельно, до начала вывода");
+        System.out.println("  \"-x\", \"--exec-sections\" -- дизассемблировать все исполняемые секции " +
+                "(SHF_EXECINSTR) параллельно и выводить их по возрастанию адресов; включает \"-t\"");
+        System.out.println("  \"--stats\" -- вывести в stderr время, процессорное время и выделенную память " +
+                "по фазам, число прочитанных байтов и счётчики команд");
+        System.out.println("  \"-d\", \"--diagnostics\" -- не прерываться на некорректных командах, а собирать " +
+                "их адреса, слова и причины и выводить сводку после кода; включает \"-q\"");
+        System.out.println("  \"--diagnostics-limit\" <N> -- сколько ошибок декодирования выводить поимённо " +
+                "(по умолчанию 100), остальные только считаются");
+        System.out.println("  \"--rvc-switch\" -- декодировать сжатые команды через switch, а не через таблицу");
+        System.out.println("  \"--verify-rvc\" -- декодировать .text через таблицу сжатых команд и через switch " +
+                "и вывести число расхождений");
+        System.out.println("  \"-l\", \"--lookup\" -- читать из стандартного ввода адреса и имена символов " +
+                "и выводить, в какой функции или объекте лежит адрес и где находится символ");
+        System.out.println("  \"--cache-dir\" <каталог> -- хранить результаты разбора в каталоге и брать их оттуда " +
+                "для файлов с тем же содержимым");
+        System.out.println("  \"--cache-limit\" <МБ> -- предельный размер каталога кэша (по умолчанию 1024)");
         System.out.println();
         exit(0);
     }
 
     public void read() throws IOException {
-        header = parser.parseELFHeader();
-        if (flags.sectionHeaders || flags.symbolTable || flags.text) {
-            sectionHeaders = parser.parseSectionHeaders(header.getSHOffset(),
-                    header.getSHNumber(), header.getSHStringTableIndex());
-        }
-        if (flags.text) {
-            boolean found = false;
-            int textHeaderId = 0;
-            for (; textHeaderId < sectionHeaders.size(); textHeaderId++) {
-                if (sectionHeaders.get(textHeaderId).getName().equals(".text")) {
-                    found = true;
-                    break;
+        if (cached != null) {
+            readCached();
+            return;
+        }
+        final Stats.Span open = stats.begin(Stats.Phase.OPEN);
+        elf = new ElfFile(source);
+        header = elf.getHeader();
+        open.end();
+        if (flags.verifyRVC) {
+            verifyRVCTable();
+        }
+        final Stats.Span sections = stats.begin(Stats.Phase.SECTION_HEADERS);
+        if (flags.sectionHeaders) {
+            sectionHeaders = elf.getSectionHeaders();
+        }
+        if (flags.allCode) {
+            codeHeaders = new ArrayList<>();
+            for (int i = 0; i < elf.getSectionCount(); i++) {
+                final SectionHeader sectionHeader = elf.getSectionHeader(i);
+                if (sectionHeader.isExecutable() && sectionHeader.getSize() != 0) {
+                    codeHeaders.add(sectionHeader);
                 }
             }
-            if (!found) {
+            codeHeaders.sort(Comparator.comparingLong(sectionHeader ->
+                    Integer.toUnsignedLong(sectionHeader.getAddress())));
+            if (codeHeaders.isEmpty()) {
                 textOk = false;
                 if (!flags.quiet) {
-                    throw new IllegalStateException(".text section not found");
+                    throw new IllegalStateException("No executable sections found");
                 }
             }
-            text = parser.parseText(sectionHeaders.get(textHeaderId), flags.quiet);
-            textAddress = sectionHeaders.get(textHeaderId).getAddress();
-        }
-        if (flags.symbolTable || flags.text) {
-            boolean found = false;
-            int symtabHeaderId = 0;
-            for (; symtabHeaderId < sectionHeaders.size(); symtabHeaderId++) {
-                if (sectionHeaders.get(symtabHeaderId).getName().equals(".symtab")) {
-                    found = true;
-                    break;
+        } else if (flags.text) {
+            final int textHeaderId = elf.findSection(".text");
+            if (textHeaderId < 0) {
+                textOk = false;
+                if (!flags.quiet) {
+                    throw new IllegalStateException(".text section not found");
                 }
+            } else {
+                textHeader = elf.getSectionHeader(textHeaderId);
             }
-            if (!found) {
+        }
+        int dynsymHeaderId = -1;
+        if (flags.lookup && !flags.symbolTable && !flags.text && elf.findSection(".symtab") < 0) {
+            // в урезанных и разделяемых файлах есть только .dynsym, имена в нём ищутся через .gnu.hash/.hash
+            dynsymHeaderId = elf.findSectionByType(SectionHeader.SHT_DYNSYM);
+        }
+        int symtabHeaderId = -1;
+        if (dynsymHeaderId < 0 && (flags.symbolTable || flags.text || flags.lookup)) {
+            symtabHeaderId = elf.findSection(".symtab");
+            if (symtabHeaderId < 0) {
                 symtabOk = false;
                 if (!flags.quiet) {
                     throw new IllegalStateException(".symtab section not found");
                 }
             }
-            symbolTable = parser.parseSymbolTable(sectionHeaders.get(symtabHeaderId),
-                    sectionHeaders.get(sectionHeaders.get(symtabHeaderId).getLink()));
+        }
+        sections.end();
+        if (dynsymHeaderId >= 0) {
+            final Stats.Span symbols = stats.begin(Stats.Phase.SYMBOL_TABLE);
+            symbolTable = elf.getSymbolTable(dynsymHeaderId);
+            hashTable = elf.getDynamicHashTable();
+            symbols.end();
+            return;
+        }
+        if (flags.parallelSections) {
+            readSectionsConcurrently(symtabHeaderId);
+        } else if (symtabHeaderId >= 0) {
+            // имена разрешаются при печати, для одного -t -- только у функций
+            final Stats.Span symbols = stats.begin(Stats.Phase.SYMBOL_TABLE);
+            symbolTable = elf.getSymbolTable(symtabHeaderId);
+            symbols.end();
+        }
+        if (codeHeaders != null && !codeHeaders.isEmpty()) {
+            decodeSectionsConcurrently();
         }
     }
 
-    public void write() {
-        try (final BufferedWriter out = (flags.inline ?
-                new BufferedWriter(new OutputStreamWriter(System.out)) :
-                new BufferedWriter(new FileWriter(writeTo)))) {
-            if (!flags.specialForVictoria) {
-                out.write(String.format("Reading %s...%n%n", readFrom));
-            }
-            if (flags.header) {
-                out.write("ELF Header:");
-                out.write(System.lineSeparator());
-                out.write(String.format("  %-38s %s%n", "Magic:", header.getMagic()));
-                out.write(String.format("  %-38s %s%n", "Class:", header.getFileClass()));
-                out.write(String.format("  %-38s %s%n", "Data:", header.getData()));
-                out.write(String.format("  %-38s %s%n", "Type:", header.getType()));
-                out.write(String.format("  %-38s %s%n", "Machine:", header.getMachine()));
-                out.write(String.format("  %-38s %s%n", "Flags:", header.getFlags()));
-                if (header.getSHOffset() > 0) {
-                    out.write(String.format("  %-38s %06x%n", "Start of section headers:", header.getSHOffset()));
-                    out.write(String.format("  %-38s %d%n", "Size of section headers:", header.getSHSize()));
-                    out.write(String.format("  %-38s %d%n", "Number of section headers:", header.getSHNumber()));
-                    out.write(String.format("  %-38s %d%n", "Section header string table index:",
-                            header.getSHStringTableIndex()));
-                } else {
-                    out.write("No section headers");
-                }
-                out.write(System.lineSeparator());
+    // сравнивается декодирование .text входного файла через таблицу сжатых команд и через switch
+    private void verifyRVCTable() {
+        final int textHeaderId = elf.findSection(".text");
+        if (textHeaderId < 0) {
+            if (!flags.quiet) {
+                throw new IllegalStateException(".text section not found");
             }
-            if (flags.sectionHeaders) {
-                out.write("Section Headers:");
-                out.newLine();
-                out.write(String.format("  [%2s] %-18s %-10s %-8s %-6s %-6s %2s%n", "Nr", "Name",
-                        "Type", "Address", "Offset", "Size", "Lk"));
-                for (int i = 0; i < header.getSHNumber(); i++) {
-                    final SectionHeader sectionHeader = sectionHeaders.get(i);
-                    out.write(String.format("  [%2d] %-18s %-10s %08x %06x %06x %2d%n",
-                            i, sectionHeader.getName(), sectionHeader.getType(), sectionHeader.getAddress(),
-                            sectionHeader.getOffset(), sectionHeader.getSize(), sectionHeader.getLink()));
+            System.out.println("RVC decode table mismatches: .text section not found");
+            return;
+        }
+        System.out.println("RVC decode table mismatches: " +
+                parser.verifyRVCTable(elf.getSectionHeader(textHeaderId)));
+    }
+
+    // каждая исполняемая секция декодируется молча своим Parser'ом в отдельное хранилище;
+    // результаты собираются в порядке адресов, так что вывод не зависит от того, какая задача закончит первой
+    private void decodeSectionsConcurrently() throws IOException {
+        final ExecutorService workers = Executors.newFixedThreadPool(
+                Math.min(codeHeaders.size(), Runtime.getRuntime().availableProcessors()));
+        try {
+            final List<Future<InstructionStore>> tasks = new ArrayList<>(codeHeaders.size());
+            final List<Diagnostics> found = new ArrayList<>(codeHeaders.size());
+            for (SectionHeader codeHeader : codeHeaders) {
+                final Diagnostics sectionDiagnostics = diagnostics == null ? null :
+                        new Diagnostics(diagnostics.getLimit());
+                found.add(sectionDiagnostics);
+                tasks.add(workers.submit(() -> {
+                    final Stats.Span span = stats.begin(Stats.Phase.DISASSEMBLE);
+                    final Parser codeParser = new Parser(source);
+                    codeParser.setRVCTable(!flags.rvcSwitch);
+                    final InstructionStore store = storeFor(codeHeader);
+                    codeParser.parseText(codeHeader, true, sectionDiagnostics, store);
+                    span.end();
+                    return store;
+                }));
+            }
+            decodedCode = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                decodedCode.add(tasks.get(i).get());
+                if (diagnostics != null) {
+                    diagnostics.addAll(found.get(i));
                 }
-                out.newLine();
             }
-            if (flags.specialForVictoria) {
-                out.write(".text");
-                out.newLine();
-                printText(out);
-                out.write(".symtab");
-                out.newLine();
-                printSymtable(out);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Section decoding interrupted");
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // после заголовков секций таблица символов с именами и дизассемблирование .text друг от друга не зависят:
+    // каждая задача читает общий отображённый файл своим Parser'ом, результаты собираются до вывода
+    private void readSectionsConcurrently(int symtabHeaderId) throws IOException {
+        final ExecutorService workers = Executors.newFixedThreadPool(2);
+        try {
+            final Future<SymbolTable> symbols = symtabHeaderId < 0 ? null : workers.submit(() -> {
+                final Stats.Span span = stats.begin(Stats.Phase.SYMBOL_TABLE);
+                final SymbolTable table = elf.getSymbolTable(symtabHeaderId);
+                final SymbolTable res = flags.symbolTable ? table.resolveNames() : table;
+                span.end();
+                return res;
+            });
+            final Future<InstructionStore> text = textHeader == null ? null : workers.submit(() -> {
+                final Stats.Span span = stats.begin(Stats.Phase.DISASSEMBLE);
+                final Parser textParser = new Parser(source);
+                textParser.setRVCTable(!flags.rvcSwitch);
+                final InstructionStore store = storeFor(textHeader);
+                textParser.parseText(textHeader, true, diagnostics, store);
+                span.end();
+                return store;
+            });
+            if (symbols != null) {
+                symbolTable = symbols.get();
+            }
+            if (text != null) {
+                decodedText = text.get();
+            }
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Section parsing interrupted");
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // в среднем команда занимает около 3 байт; для секций в гигабайты хранилище дорастает по мере заполнения
+    private static InstructionStore storeFor(SectionHeader section) {
+        return new InstructionStore((int) Math.min(section.getSize() / 3, 1 << 24));
+    }
+
+    // причина ошибки задачи выбрасывается как есть, если это возможно
+    private static IOException rethrow(Throwable cause) {
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    private void readCached() {
+        header = cached.getHeader();
+        sectionHeaders = cached.getSectionHeaders();
+        textHeader = cached.getTextHeader();
+        symbolTable = cached.getSymbolTable();
+        if (flags.text && textHeader == null) {
+            textOk = false;
+            if (!flags.quiet) {
+                throw new IllegalStateException(".text section not found");
+            }
+        }
+        if ((flags.symbolTable || flags.text || flags.lookup) && symbolTable == null) {
+            symtabOk = false;
+            if (!flags.quiet) {
+                throw new IllegalStateException(".symtab section not found");
+            }
+        }
+    }
+
+    ParsedFile snapshot() {
+        InstructionStore text = decodedText;
+        if (text == null && textHeader != null) {
+            text = new InstructionStore();
+            parser.parseText(textHeader, true, text);
+        }
+        return new ParsedFile(header, sectionHeaders, symbolTable, textHeader, text);
+    }
+
+    public void write() {
+        try {
+            writeOutput();
+        } catch (IOException e) {
+            System.out.println("Output error occurred" + e.getMessage());
+        }
+    }
+
+    public void writeOutput() throws IOException {
+        if (flags.inline) {
+            try (final WritableByteChannel channel = Channels.newChannel(System.out)) {
+                writeOutput(channel);
+            }
+            return;
+        }
+        // без -q некорректная команда обнаруживается только во время вывода, поэтому он пишется во временный
+        // файл рядом с выходным и переносится на его место после успеха: при ошибке выходной файл не тронут
+        final Path target = Path.of(writeTo).toAbsolutePath();
+        final Path temp = target.resolveSibling("." + target.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        try {
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                writeOutput(channel);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public void writeOutput(WritableByteChannel channel) throws IOException {
+        final Stats.Span output = stats.begin(Stats.Phase.OUTPUT);
+        printOutput(channel);
+        output.end();
+        final long bytesRead = source instanceof CountingByteSource ?
+                ((CountingByteSource) source).getBytesRead() : -1;
+        if (flags.stats) {
+            stats.commit(bytesRead);
+            stats.print(System.err, bytesRead);
+        }
+    }
+
+    private void printOutput(WritableByteChannel channel) throws IOException {
+        final BufferedWriter out = new BufferedWriter(Channels.newWriter(channel, Charset.defaultCharset()));
+        if (!flags.specialForVictoria) {
+            out.write(String.format("Reading %s...%n%n", readFrom));
+        }
+        if (flags.header) {
+            out.write("ELF Header:");
+            out.write(System.lineSeparator());
+            out.write(String.format("  %-38s %s%n", "Magic:", header.getMagic()));
+            out.write(String.format("  %-38s %s%n", "Class:", header.getFileClass()));
+            out.write(String.format("  %-38s %s%n", "Data:", header.getData()));
+            out.write(String.format("  %-38s %s%n", "Type:", header.getType()));
+            out.write(String.format("  %-38s %s%n", "Machine:", header.getMachine()));
+            out.write(String.format("  %-38s %s%n", "Flags:", header.getFlags()));
+            if (header.getSHOffset() > 0) {
+                out.write(String.format("  %-38s %06x%n", "Start of section headers:", header.getSHOffset()));
+                out.write(String.format("  %-38s %d%n", "Size of section headers:", header.getSHSize()));
+                out.write(String.format("  %-38s %d%n", "Number of section headers:", header.getSHNumber()));
+                out.write(String.format("  %-38s %d%n", "Section header string table index:",
+                        header.getSHStringTableIndex()));
             } else {
-                if (flags.symbolTable) {
-                    if (symtabOk) {
-                        printSymtable(out);
-                    } else {
+                out.write("No section headers");
+            }
+            out.write(System.lineSeparator());
+        }
+        if (flags.sectionHeaders) {
+            out.write("Section Headers:");
+            out.newLine();
+            out.write(String.format("  [%2s] %-18s %-10s %-8s %-6s %-6s %2s%n", "Nr", "Name",
+                    "Type", "Address", "Offset", "Size", "Lk"));
+            for (int i = 0; i < header.getSHNumber(); i++) {
+                final SectionHeader sectionHeader = sectionHeaders.get(i);
+                out.write(String.format("  [%2d] %-18s %-10s %08x %06x %06x %2d%n",
+                        i, sectionHeader.getName(), sectionHeader.getType(), sectionHeader.getAddress(),
+                        sectionHeader.getOffset(), sectionHeader.getSize(), sectionHeader.getLink()));
+            }
+            out.newLine();
+        }
+        if (flags.specialForVictoria) {
+            out.write(".text");
+            out.newLine();
+            printText(out, channel);
+            out.write(".symtab");
+            out.newLine();
+            printSymtable(out);
+        } else {
+            if (flags.symbolTable) {
+                if (symtabOk) {
+                    printSymtable(out);
+                } else {
+                    out.write("Symbol table not found");
+                    out.newLine();
+                }
+            }
+            if (flags.text) {
+                if (symtabOk && textOk) {
+                    printText(out, channel);
+                    if (diagnostics != null) {
+                        printDiagnostics(out);
+                    }
+                } else {
+                    if (!symtabOk && !flags.symbolTable) {
                         out.write("Symbol table not found");
                         out.newLine();
                     }
-                }
-                if (flags.text) {
-                    if (symtabOk && textOk) {
-                        printText(out);
-                    } else {
-                        if (!symtabOk && !flags.symbolTable) {
-                            out.write("Symbol table not found");
-                            out.newLine();
-                        }
-                        if (!textOk) {
-                            out.write(".text section not found");
-                            out.newLine();
-                        }
+                    if (!textOk) {
+                        out.write(flags.allCode ? "No executable sections found" : ".text section not found");
+                        out.newLine();
                     }
                 }
             }
-        } catch (IOException e) {
-            System.out.println("Output error occurred" + e.getMessage());
+            if (flags.lookup) {
+                if (symtabOk) {
+                    printLookup(new BufferedReader(flags.lookupQueries != null ?
+                            new StringReader(flags.lookupQueries) :
+                            new InputStreamReader(System.in, Charset.defaultCharset())), out);
+                } else if (!flags.symbolTable && !flags.text) {
+                    out.write("Symbol table not found");
+                    out.newLine();
+                }
+            }
         }
+        out.flush();
     }
 
-    private void printText(BufferedWriter out) throws IOException {
-        final Map<Integer, String> labels = new HashMap<>();
-        for (Symbol symbol : symbolTable) {
-            if (symbol.getType().equals("FUNC")) {
-                labels.put(symbol.getValue(), symbol.getName());
+    // сводка по причинам, затем первые сохранённые ошибки по порядку адресов
+    private void printDiagnostics(BufferedWriter out) throws IOException {
+        out.write(String.format("Diagnostics: %d problem(s)%n", diagnostics.count()));
+        for (Diagnostics.Reason reason : Diagnostics.Reason.values()) {
+            if (diagnostics.count(reason) != 0) {
+                out.write(String.format("  %-22s %d%n", reason.getTitle(), diagnostics.count(reason)));
             }
         }
-        int address = textAddress;
-        int unnamedLabels = 0;
-        for (Instruction value : text) {
-            final Commands command = value.getCommand();
-            if (command == Commands.JAL || command == Commands.C_JAL || command == Commands.C_J ||
-                    command == Commands.BEQ || command == Commands.BNE ||
-                    command == Commands.BLT || command == Commands.BLTU ||
-                    command == Commands.BGE || command == Commands.BGEU ||
-                    command == Commands.C_BEQZ || command == Commands.C_BNEZ) {
-                final int delta = value.getImmediate();
-                if (!labels.containsKey(address + delta)) {
-                    labels.put(address + delta, String.format("LOC_%05x", unnamedLabels++));
-                }
+        if (diagnostics.size() < diagnostics.count()) {
+            out.write(String.format("  first %d of them:%n", diagnostics.size()));
+        }
+        for (int i = 0; i < diagnostics.size(); i++) {
+            out.write(String.format("  0x%08x 0x%08x %s%n", diagnostics.getAddress(i), diagnostics.getWord(i),
+                    diagnostics.getReason(i).getTitle()));
+        }
+        out.newLine();
+    }
+
+    // каждая строка запроса -- адрес (0x... или десятичный) или имя символа
+    public void printLookup(BufferedReader queries, BufferedWriter out) throws IOException {
+        final SymbolIndex index = new SymbolIndex(symbolTable);
+        out.write("Symbol lookup:");
+        out.newLine();
+        String query;
+        while ((query = queries.readLine()) != null) {
+            query = query.strip();
+            if (query.isEmpty()) {
+                continue;
             }
-            if (value.getCommand().toString().startsWith("C_") || value.getCommand() == Commands.UNKNOWN) {
-                address += 0x2;
+            final long parsed = parseAddress(query);
+            if (parsed >= 0) {
+                final int address = (int) parsed;
+                final int symbol = index.findByAddress(address);
+                if (symbol < 0) {
+                    out.write(String.format("  0x%08x ??%n", address));
+                } else {
+                    final int offset = address - symbolTable.getValue(symbol);
+                    out.write(String.format("  0x%08x %s%s%n", address, symbolTable.getName(symbol),
+                            offset == 0 ? "" : String.format("+0x%x", offset)));
+                }
             } else {
-                address += 0x4;
+                final int symbol = hashTable != null ? hashTable.find(query) : index.findByName(query);
+                if (symbol < 0) {
+                    out.write(String.format("  %s ??%n", query));
+                } else {
+                    out.write(String.format("  %s 0x%08x %d %s%n", query, symbolTable.getValue(symbol),
+                            Integer.toUnsignedLong(symbolTable.getSize(symbol)), symbolTable.getType(symbol)));
+                }
+            }
+        }
+        out.newLine();
+    }
+
+    // адрес из запроса или -1, если запрос -- имя символа
+    private static long parseAddress(String query) {
+        final boolean hex = query.startsWith("0x") || query.startsWith("0X");
+        final String digits = hex ? query.substring(2) : query;
+        if (digits.isEmpty() || digits.length() > (hex ? 8 : 10) ||
+                !digits.chars().allMatch(c -> Character.digit(c, hex ? 16 : 10) >= 0)) {
+            return -1;
+        }
+        final long res = Long.parseLong(digits, hex ? 16 : 10);
+        return res > 0xffffffffL ? -1 : res;
+    }
+
+    private void printText(BufferedWriter out, WritableByteChannel channel) throws IOException {
+        final Stats.Span names = stats.begin(Stats.Phase.LABELS);
+        labels = new Labels();
+        for (int i = 0; i < symbolTable.size(); i++) {
+            if (symbolTable.getTypeCode(i) == SymbolTable.STT_FUNC) {
+                labels.putName(symbolTable.getValue(i), symbolTable.getName(i));
             }
         }
-        address = textAddress;
+        names.end();
+        if (decodedCode != null) {
+            printCodeSections(out);
+            return;
+        }
+        final InstructionStore stored = cached != null ? cached.getText() : decodedText;
+        if (stored != null) {
+            // заранее команды декодированы молча; без -q при неизвестных декодируем заново, чтобы получить ошибку
+            if (flags.quiet || stored.getUnknownCount() == 0) {
+                discoverLabels(List.of(stored), textHeader);
+                printStoredText(out, List.of(stored), textHeader);
+                return;
+            }
+            if (parser == null) {
+                parser = new Parser(readFrom);
+                parser.setRVCTable(!flags.rvcSwitch);
+            }
+        }
+        if (flags.pipeline) {
+            printPipelinedText(out, channel);
+            return;
+        }
+        if (flags.parallel) {
+            printParallelText(out);
+            return;
+        }
+        if (flags.compact) {
+            printCompactText(out);
+            return;
+        }
+        final Stats.Span targets = stats.begin(Stats.Phase.LABELS);
+        address = textHeader.getAddress();
+        parser.parseText(textHeader, flags.quiet, labelDiagnostics(), (instructionAddress, instruction) ->
+                discoverLabel(instruction.getCommand(), instruction.getImmediate()));
+        targets.end();
+        startPrinting(textHeader);
         if (!flags.specialForVictoria) {
             out.write("Disassembly of section .text:");
         }
-        for (final Instruction instruction : text) {
-            final String label = labels.getOrDefault(address, "");
-            if (flags.specialForVictoria) {
-                if (label.isEmpty()) {
-                    out.write(String.format("%08x %10s  %s", address, "",
-                            instruction.printInstruction(address, labels)));
-                } else {
-                    out.write(String.format("%08x %10s: %s", address, label,
-                            instruction.printInstruction(address, labels)));
+        try {
+            parser.parseText(textHeader, flags.quiet, diagnostics, (instructionAddress, instruction) -> {
+                try {
+                    printInstruction(out, instruction);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-            } else {
-                if (!label.isEmpty() && !label.startsWith("LOC_")) {
-                    out.write(String.format("%n%08x <%s>:%n", address, labels.get(address)));
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.newLine();
+    }
+
+    // метки собираются во время единственного декодирования, печать идёт из хранилища
+    private void printCompactText(BufferedWriter out) throws IOException {
+        final Stats.Span decode = stats.begin(Stats.Phase.DISASSEMBLE);
+        final InstructionStore store = new InstructionStore();
+        address = textHeader.getAddress();
+        parser.parseText(textHeader, flags.quiet, diagnostics, (instructionAddress, instruction) -> {
+            discoverLabel(instruction.getCommand(), instruction.getImmediate());
+            store.accept(instructionAddress, instruction);
+        });
+        decode.end();
+        printStoredText(out, List.of(store), textHeader);
+        if (flags.stats) {
+            System.err.println("Instruction store: " + store);
+        }
+    }
+
+    private void printParallelText(BufferedWriter out) throws IOException {
+        final Stats.Span decode = stats.begin(Stats.Phase.DISASSEMBLE);
+        final List<InstructionStore> stores = parser.parseTextParallel(textHeader, flags.quiet, diagnostics);
+        decode.end();
+        discoverLabels(stores, textHeader);
+        printStoredText(out, stores, textHeader);
+    }
+
+    // метки собираются по всем секциям до печати, чтобы переходы между секциями тоже получили метки
+    private void printCodeSections(BufferedWriter out) throws IOException {
+        for (int i = 0; i < codeHeaders.size(); i++) {
+            discoverLabels(List.of(decodedCode.get(i)), codeHeaders.get(i));
+        }
+        for (int i = 0; i < codeHeaders.size(); i++) {
+            // без -q секцию с неизвестными командами декодируем заново, чтобы получить ошибку
+            if (!flags.quiet && decodedCode.get(i).getUnknownCount() != 0) {
+                parser.parseText(codeHeaders.get(i), false, (instructionAddress, instruction) -> {
+                });
+            }
+            printStoredText(out, List.of(decodedCode.get(i)), codeHeaders.get(i));
+        }
+    }
+
+    // проход за метками тоже не должен прерываться, но ошибки выводятся только из печатающего прохода
+    private Diagnostics labelDiagnostics() {
+        return diagnostics == null ? null : new Diagnostics(0);
+    }
+
+    private void discoverLabels(List<InstructionStore> stores, SectionHeader section) {
+        final Stats.Span targets = stats.begin(Stats.Phase.LABELS);
+        address = section.getAddress();
+        for (InstructionStore store : stores) {
+            final InstructionStore.Cursor cursor = store.cursor();
+            while (cursor.next()) {
+                discoverLabel(cursor.getCommand(), cursor.getImmediate());
+            }
+        }
+        targets.end();
+    }
+
+    private void printStoredText(BufferedWriter out, List<InstructionStore> stores, SectionHeader section)
+            throws IOException {
+        startPrinting(section);
+        if (!flags.specialForVictoria) {
+            out.write("Disassembly of section " + section.getName() + ":");
+            // секция из -x может начинаться не с функции, тогда заголовок секции не должен слипаться с командой
+            final int label = labels.find(section.getAddress());
+            if (codeHeaders != null && (label == 0 || !Labels.isNamed(label) ||
+                    labels.getName(label).startsWith("LOC_"))) {
+                out.newLine();
+            }
+        }
+        for (InstructionStore store : stores) {
+            final InstructionStore.Cursor cursor = store.cursor();
+            while (cursor.next()) {
+                if (flags.stats) {
+                    stats.count(cursor.getCommand(), cursor.getType());
                 }
-                out.write(String.format("   %08x ", address));
-                out.write(!label.startsWith("LOC_") ? String.format("%12s", "") :
-                        String.format(" %10s", label + ": "));
+                formatter.clear();
+                printLabel();
+                formatter.appendInstruction(cursor.getType(), cursor.getCommand(), cursor.getImmediate(),
+                        cursor.getRs1(), cursor.getRs2(), cursor.getRd(), address, labels);
+                formatter.writeTo(out);
+                address += instructionLength(cursor.getCommand());
+            }
+        }
+        out.newLine();
+    }
 
-                // раскомментить если хотим выводить коды команд
-//                        out.write(String.format("%08x   ", instruction.getInstruction()));
-                out.write(instruction.printInstruction(address, labels));
+    // декодирование, форматирование и запись идут в отдельных потоках, связанных ограниченными очередями
+    private void printPipelinedText(BufferedWriter out, WritableByteChannel channel) throws IOException {
+        final Stats.Span targets = stats.begin(Stats.Phase.LABELS);
+        address = textHeader.getAddress();
+        parser.parseText(textHeader, flags.quiet, labelDiagnostics(), (instructionAddress, instruction) ->
+                discoverLabel(instruction.getCommand(), instruction.getImmediate()));
+        targets.end();
+        startPrinting(textHeader);
+        if (!flags.specialForVictoria) {
+            out.write("Disassembly of section .text:");
+        }
+        out.flush();
+        final BlockingQueue<InstructionStore> decoded = new ArrayBlockingQueue<>(PIPELINE_DEPTH);
+        final BlockingQueue<ByteBuffer> formatted = new ArrayBlockingQueue<>(PIPELINE_DEPTH);
+        final ExecutorService stages = Executors.newFixedThreadPool(3);
+        try {
+            final CompletionService<Void> completion = new ExecutorCompletionService<>(stages);
+            completion.submit(() -> {
+                decodeStage(decoded);
+                return null;
+            });
+            completion.submit(() -> {
+                formatStage(decoded, formatted);
+                return null;
+            });
+            completion.submit(() -> {
+                writeStage(formatted, channel);
+                return null;
+            });
+            for (int i = 0; i < 3; i++) {
+                completion.take().get();
             }
-            if (instruction.getCommand().toString().startsWith("C_") || instruction.getCommand() == Commands.UNKNOWN) {
-                address += 0x2;
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Disassembly pipeline interrupted");
+        } finally {
+            stages.shutdownNow();
+        }
+        out.newLine();
+    }
+
+    private void decodeStage(BlockingQueue<InstructionStore> decoded) throws InterruptedException {
+        final InstructionStore[] chunk = {new InstructionStore(PIPELINE_CHUNK)};
+        try {
+            parser.parseText(textHeader, flags.quiet, diagnostics, (instructionAddress, instruction) -> {
+                chunk[0].accept(instructionAddress, instruction);
+                if (chunk[0].size() == PIPELINE_CHUNK) {
+                    try {
+                        decoded.put(chunk[0]);
+                    } catch (InterruptedException e) {
+                        throw new CancellationException();
+                    }
+                    chunk[0] = new InstructionStore(PIPELINE_CHUNK);
+                }
+            });
+        } catch (CancellationException e) {
+            throw new InterruptedException();
+        }
+        decoded.put(chunk[0]);
+        decoded.put(END_OF_TEXT);
+    }
+
+    private void formatStage(BlockingQueue<InstructionStore> decoded, BlockingQueue<ByteBuffer> formatted)
+            throws InterruptedException, CharacterCodingException {
+        final CharsetEncoder encoder = Charset.defaultCharset().newEncoder();
+        InstructionStore chunk;
+        while ((chunk = decoded.take()) != END_OF_TEXT) {
+            formatter.clear();
+            final InstructionStore.Cursor cursor = chunk.cursor();
+            while (cursor.next()) {
+                if (flags.stats) {
+                    stats.count(cursor.getCommand(), cursor.getType());
+                }
+                printLabel();
+                formatter.appendInstruction(cursor.getType(), cursor.getCommand(), cursor.getImmediate(),
+                        cursor.getRs1(), cursor.getRs2(), cursor.getRd(), address, labels);
+                address += instructionLength(cursor.getCommand());
+            }
+            formatted.put(encoder.encode(formatter.chars()));
+        }
+        formatted.put(END_OF_OUTPUT);
+    }
+
+    private void writeStage(BlockingQueue<ByteBuffer> formatted, WritableByteChannel channel)
+            throws InterruptedException, IOException {
+        ByteBuffer bytes;
+        while ((bytes = formatted.take()) != END_OF_OUTPUT) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    private void discoverLabel(Commands command, int delta) {
+        if (BRANCHES[command.ordinal()]) {
+            labels.addTarget(address + delta);
+        }
+        address += instructionLength(command);
+    }
+
+    private void startPrinting(SectionHeader section) {
+        address = section.getAddress();
+        labelAddresses = labels.sortedAddresses();
+        nextLabel = 0;
+    }
+
+    private void printInstruction(BufferedWriter out, Instruction instruction) throws IOException {
+        if (flags.stats) {
+            stats.count(instruction.getCommand(), instruction.getType());
+        }
+        formatter.clear();
+        printLabel();
+        // раскомментить если хотим выводить коды команд
+//        formatter.appendHex(instruction.getInstruction(), 8).appendSpaces(3);
+        formatter.appendInstruction(instruction.getType(), instruction.getCommand(), instruction.getImmediate(),
+                instruction.getRs1(), instruction.getRs2(), instruction.getRd(), address, labels);
+        formatter.writeTo(out);
+        address += instructionLength(instruction.getCommand());
+    }
+
+    // адреса печатаемых команд возрастают, поэтому по отсортированным адресам меток идём одним указателем
+    private void printLabel() {
+        while (nextLabel < labelAddresses.length && labelAddresses[nextLabel] < address) {
+            nextLabel++;
+        }
+        final int label = nextLabel < labelAddresses.length && labelAddresses[nextLabel] == address ?
+                labels.find(address) : 0;
+        if (flags.specialForVictoria) {
+            formatter.appendHex(address, 8).append(' ');
+            if (label == 0) {
+                formatter.appendSpaces(10).append(' ');
+            } else {
+                formatter.appendSpaces(10 - InstructionFormatter.labelLength(labels, label))
+                        .appendLabel(labels, label).append(':');
+            }
+            formatter.append(' ');
+        } else {
+            final boolean local = label != 0 &&
+                    (!Labels.isNamed(label) || labels.getName(label).startsWith("LOC_"));
+            if (label != 0 && !local) {
+                formatter.newLine().appendHex(address, 8).append(" <").appendLabel(labels, label).append(">:")
+                        .newLine();
+            }
+            formatter.appendSpaces(3).appendHex(address, 8).append(' ');
+            if (local) {
+                formatter.append(' ').appendSpaces(8 - InstructionFormatter.labelLength(labels, label))
+                        .appendLabel(labels, label).append(':').append(' ');
             } else {
-                address += 0x4;
+                formatter.appendSpaces(12);
             }
         }
-        out.newLine();
+    }
+
+    // адрес считается по командам, а не берётся из дизассемблера: unknown всегда занимает 2 байта
+    private int instructionLength(Commands command) {
+        return LENGTHS[command.ordinal()];
     }
 
     private void printSymtable(BufferedWriter out) throws IOException {
@@ -291,15 +1000,14 @@ public class Reader {
                     "Size", "Type", "Bind", "Vis", "Idx", "Name"));
         }
         for (int i = 0; i < symbolTable.size(); i++) {
-            final Symbol symbol = symbolTable.get(i);
             if (flags.specialForVictoria) {
-                out.write(String.format("[%4d] 0x%-15X %5d %-8s %-8s %-8s %6s %s%n", i, symbol.getValue(),
-                        symbol.getSize(), symbol.getType(), symbol.getBinding(), symbol.getVisibility(),
-                        symbol.getSectionHeaderIndex(), symbol.getName()));
+                out.write(String.format("[%4d] 0x%-15X %5d %-8s %-8s %-8s %6s %s%n", i, symbolTable.getValue(i),
+                        symbolTable.getSize(i), symbolTable.getType(i), symbolTable.getBinding(i),
+                        symbolTable.getVisibility(i), symbolTable.getSectionHeaderIndex(i), symbolTable.getName(i)));
             } else {
-                out.write(String.format("  [%3d] 0x%-9x %5d %-10s %-8s %-7s %6s %s%n", i, symbol.getValue(),
-                        symbol.getSize(), symbol.getType(), symbol.getBinding(), symbol.getVisibility(),
-                        symbol.getSectionHeaderIndex(), symbol.getName()));
+                out.write(String.format("  [%3d] 0x%-9x %5d %-10s %-8s %-7s %6s %s%n", i, symbolTable.getValue(i),
+                        symbolTable.getSize(i), symbolTable.getType(i), symbolTable.getBinding(i),
+                        symbolTable.getVisibility(i), symbolTable.getSectionHeaderIndex(i), symbolTable.getName(i)));
             }
         }
         out.newLine();
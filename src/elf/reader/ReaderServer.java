@@ -0,0 +1,210 @@
+package elf.reader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Долгоживущий процесс, отвечающий на запросы через Unix domain socket.
+// Запрос -- одна строка с теми же аргументами, что и у Reader, последний из них -- путь к файлу.
+// Аргументы разделяются пробелами и, как в shell, могут быть заключены в кавычки или экранированы \.
+// Ответ -- вывод Reader (как с -i), после чего соединение закрывается.
+public class ReaderServer {
+    private final Path socket;
+    private final int jobs;
+    private final Map<String, ParsedFile> cache;
+
+    public ReaderServer(Path socket, int cacheSize, int jobs) {
+        if (cacheSize < 0 || jobs <= 0) {
+            throw new IllegalArgumentException("Cache size must be non-negative and number of jobs positive");
+        }
+        this.socket = socket;
+        this.jobs = jobs;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParsedFile> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static ReaderServer fromArgs(String[] args) {
+        Path socket = null;
+        int cacheSize = 16;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--server" -> socket = Path.of(value(args, ++i, "--server"));
+                case "--cache" -> cacheSize = Integer.parseInt(value(args, ++i, "--cache"));
+                case "--jobs" -> jobs = Integer.parseInt(value(args, ++i, "--jobs"));
+                default -> throw new IllegalArgumentException("Unknown server argument: " + args[i]);
+            }
+        }
+        return new ReaderServer(socket, cacheSize, jobs);
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Expected value after " + option);
+        }
+        return args[i];
+    }
+
+    public void serve() throws IOException {
+        Files.deleteIfExists(socket);
+        final ExecutorService pool = Executors.newFixedThreadPool(jobs);
+        try (final ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            System.out.println("Listening on " + socket);
+            while (!Thread.currentThread().isInterrupted()) {
+                final SocketChannel client = server.accept();
+                pool.submit(() -> handle(client));
+            }
+        } finally {
+            pool.shutdownNow();
+            Files.deleteIfExists(socket);
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (client) {
+            final BufferedReader in = new BufferedReader(Channels.newReader(client, StandardCharsets.UTF_8));
+            final String request = in.readLine();
+            if (request == null || request.isBlank()) {
+                return;
+            }
+            try {
+                respond(split(request), client);
+            } catch (IOException | RuntimeException | AssertionError e) {
+                client.write(ByteBuffer.wrap(("Error: " + e.getClass().getSimpleName() + ": " + e.getMessage() +
+                        System.lineSeparator()).getBytes(StandardCharsets.UTF_8)));
+            }
+        } catch (IOException e) {
+            System.out.println("Connection error occurred: " + e.getMessage());
+        }
+    }
+
+    // '...' без экранирования внутри, "..." с экранированием только \\ и \", вне кавычек \ экранирует любой символ
+    private static String[] split(String request) {
+        final List<String> args = new ArrayList<>();
+        final StringBuilder arg = new StringBuilder();
+        boolean inArg = false;
+        char quote = 0;
+        for (int i = 0; i < request.length(); i++) {
+            final char c = request.charAt(i);
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    arg.append(c);
+                }
+            } else if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                } else if (c == '\\' && i + 1 < request.length() &&
+                        (request.charAt(i + 1) == '"' || request.charAt(i + 1) == '\\')) {
+                    arg.append(request.charAt(++i));
+                } else {
+                    arg.append(c);
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (inArg) {
+                    args.add(arg.toString());
+                    arg.setLength(0);
+                    inArg = false;
+                }
+            } else {
+                inArg = true;
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                } else if (c == '\\') {
+                    if (++i == request.length()) {
+                        throw new IllegalArgumentException("Unfinished escape at the end of request");
+                    }
+                    arg.append(request.charAt(i));
+                } else {
+                    arg.append(c);
+                }
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unclosed quote " + quote + " in request");
+        }
+        if (inArg) {
+            args.add(arg.toString());
+        }
+        return args.toArray(new String[0]);
+    }
+
+    private void respond(String[] args, SocketChannel client) throws IOException {
+        for (String arg : args) {
+            // -h завершает процесс, поэтому в режиме сервера он недоступен
+            if (arg.equals("-h") || arg.equals("--help")) {
+                throw new IllegalArgumentException("Help is not available in server mode");
+            }
+            // стандартный ввод у сервера общий, поэтому запросы -l в нём не выполнить
+            if (arg.equals("-l") || arg.equals("--lookup")) {
+                throw new IllegalArgumentException("Lookup is not available in server mode");
+            }
+            // статистика пишется в stderr сервера, а не клиенту
+            if (arg.equals("--stats")) {
+                throw new IllegalArgumentException("Statistics are not available in server mode");
+            }
+            // в кэше сервера хранятся уже декодированные команды, ошибки декодирования в нём не сохраняются
+            if (arg.equals("-d") || arg.equals("--diagnostics")) {
+                throw new IllegalArgumentException("Diagnostics are not available in server mode");
+            }
+            // проверка таблицы пишет в stdout сервера и нуждается в исходных байтах .text, которых нет в кэше
+            if (arg.equals("--verify-rvc")) {
+                throw new IllegalArgumentException("RVC table check is not available in server mode");
+            }
+            // в кэше сервера хранится только .text
+            if (arg.equals("-x") || arg.equals("--exec-sections")) {
+                throw new IllegalArgumentException("Executable sections are not available in server mode");
+            }
+        }
+        final Flags flags = new Flags();
+        final int offset = Reader.parseFlags(args, flags);
+        if (offset >= args.length) {
+            throw new IllegalArgumentException("Expected input file name");
+        }
+        flags.inline = true;
+        final String path = args[offset];
+        final Reader reader = new Reader(flags, parsed(path, !flags.rvcSwitch), path);
+        reader.read();
+        reader.writeOutput(client);
+    }
+
+    // файл разбирается заново, только если изменились его время модификации или размер
+    private ParsedFile parsed(String path, boolean rvcTable) throws IOException {
+        final Path file = Path.of(path).toAbsolutePath().normalize();
+        final String key = file + "|" + Files.getLastModifiedTime(file).toMillis() + "|" + Files.size(file) +
+                "|" + rvcTable;
+        synchronized (cache) {
+            final ParsedFile res = cache.get(key);
+            if (res != null) {
+                return res;
+            }
+        }
+        final ParsedFile res = ParsedFile.load(path, rvcTable);
+        synchronized (cache) {
+            cache.put(key, res);
+        }
+        return res;
+    }
+}
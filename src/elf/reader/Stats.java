@@ -0,0 +1,220 @@
+package elf.reader;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import riscv.RV32.Commands;
+import riscv.Type;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Время, процессорное время и выделенная память по фазам разбора, счётчики декодированных команд.
+// Фазы вкладываются друг в друга (вывод текста включает поиск меток), поэтому фазе засчитывается
+// только собственное время, без вложенных. Время и память меряются в потоке, выполняющем фазу,
+// так что фазы рабочих потоков (-P, -x) учитываются целиком, а их время может перекрываться.
+// Каждая фаза также выдаётся событием JFR elfreader.Phase, когда JFR его записывает, даже без --stats;
+// итог с --stats выдаётся событием elfreader.Stats.
+public class Stats {
+    public enum Phase {
+        OPEN("open"),
+        SECTION_HEADERS("section headers"),
+        SYMBOL_TABLE("symbol table"),
+        DISASSEMBLE("disassemble"),
+        LABELS("labels"),
+        OUTPUT("output");
+
+        private final String title;
+
+        Phase(String title) {
+            this.title = title;
+        }
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final Phase[] PHASES = Phase.values();
+    private static final Commands[] COMMANDS = Commands.values();
+    private static final Type[] TYPES = Type.values();
+
+    private final boolean enabled;
+    private final String file;
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final AtomicLongArray wall = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray cpu = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray allocated = new AtomicLongArray(PHASES.length);
+    // команды считает только поток вывода
+    private final long[] commands = new long[COMMANDS.length];
+    private final long[] types = new long[TYPES.length];
+
+    @Name("elfreader.Phase")
+    @Label("Reader Phase")
+    @Category("elfreader")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+        @Label("File")
+        String file;
+        @Label("CPU Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long cpuTime;
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    @Name("elfreader.Stats")
+    @Label("Reader Statistics")
+    @Category("elfreader")
+    static class StatsEvent extends Event {
+        @Label("File")
+        String file;
+        @Label("Bytes Read")
+        @DataAmount
+        long bytesRead;
+        @Label("Instructions")
+        long instructions;
+        @Label("Unknown Instructions")
+        long unknown;
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    public Stats(boolean enabled, String file) {
+        this.enabled = enabled;
+        this.file = file;
+    }
+
+    public class Span {
+        private final Phase phase;
+        private final Span parent;
+        private final PhaseEvent event = new PhaseEvent();
+        private final boolean measured;
+        private final long startWall;
+        private final long startCpu;
+        private final long startAllocated;
+        private long childWall;
+        private long childCpu;
+        private long childAllocated;
+
+        private Span(Phase phase, Span parent) {
+            this.phase = phase;
+            this.parent = parent;
+            measured = enabled || event.isEnabled();
+            startWall = System.nanoTime();
+            startCpu = measured ? THREADS.getCurrentThreadCpuTime() : 0;
+            startAllocated = measured ? allocatedBytes() : 0;
+            event.begin();
+        }
+
+        public void end() {
+            event.end();
+            current.set(parent);
+            if (!measured) {
+                return;
+            }
+            final long spanWall = System.nanoTime() - startWall;
+            final long spanCpu = THREADS.getCurrentThreadCpuTime() - startCpu;
+            final long spanAllocated = allocatedBytes() - startAllocated;
+            if (event.shouldCommit()) {
+                event.phase = phase.title;
+                event.file = file;
+                event.cpuTime = spanCpu;
+                event.allocated = spanAllocated;
+                event.commit();
+            }
+            wall.addAndGet(phase.ordinal(), spanWall - childWall);
+            cpu.addAndGet(phase.ordinal(), spanCpu - childCpu);
+            allocated.addAndGet(phase.ordinal(), spanAllocated - childAllocated);
+            if (parent != null) {
+                parent.childWall += spanWall;
+                parent.childCpu += spanCpu;
+                parent.childAllocated += spanAllocated;
+            }
+        }
+    }
+
+    // фаза закрывается через Span.end() в том же потоке
+    public Span begin(Phase phase) {
+        final Span res = new Span(phase, current.get());
+        current.set(res);
+        return res;
+    }
+
+    public void count(Commands command, Type type) {
+        commands[command.ordinal()]++;
+        types[type.ordinal()]++;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes();
+    }
+
+    private long instructions() {
+        return Arrays.stream(commands).sum();
+    }
+
+    private long totalAllocated() {
+        long res = 0;
+        for (int i = 0; i < PHASES.length; i++) {
+            res += allocated.get(i);
+        }
+        return res;
+    }
+
+    // bytesRead равен -1, если чтение не считалось (результат взят из кэша)
+    public void commit(long bytesRead) {
+        final StatsEvent event = new StatsEvent();
+        if (event.shouldCommit()) {
+            event.file = file;
+            event.bytesRead = bytesRead;
+            event.instructions = instructions();
+            event.unknown = commands[Commands.UNKNOWN.ordinal()];
+            event.allocated = totalAllocated();
+            event.commit();
+        }
+    }
+
+    // сводка печатается одним вызовом, чтобы сводки файлов из --batch не перемешивались по строкам
+    public void print(PrintStream stream, long bytesRead) {
+        final StringWriter text = new StringWriter();
+        final PrintWriter out = new PrintWriter(text);
+        out.println("Statistics for " + file + ":");
+        out.printf("  %-16s %10s %10s %14s%n", "Phase", "Wall ms", "CPU ms", "Allocated KB");
+        long totalWall = 0;
+        long totalCpu = 0;
+        for (Phase phase : PHASES) {
+            final int i = phase.ordinal();
+            totalWall += wall.get(i);
+            totalCpu += cpu.get(i);
+            out.printf("  %-16s %10.3f %10.3f %14d%n", phase.title, wall.get(i) / 1e6, cpu.get(i) / 1e6,
+                    allocated.get(i) >> 10);
+        }
+        out.printf("  %-16s %10.3f %10.3f %14d%n", "total", totalWall / 1e6, totalCpu / 1e6,
+                totalAllocated() >> 10);
+        out.println("  Bytes read: " + (bytesRead < 0 ? "n/a (cached)" : bytesRead));
+        out.println("  Instructions: " + instructions() + ", unknown: " + commands[Commands.UNKNOWN.ordinal()]);
+        out.println("  By type:" + counts(TYPES, types));
+        out.println("  By command:" + counts(COMMANDS, commands));
+        out.flush();
+        stream.print(text);
+    }
+
+    // ненулевые счётчики по убыванию
+    private static String counts(Enum<?>[] names, long[] counts) {
+        final StringBuilder res = new StringBuilder();
+        Arrays.stream(names).filter(name -> counts[name.ordinal()] != 0)
+                .sorted(Comparator.comparingLong(name -> -counts[name.ordinal()]))
+                .forEach(name -> res.append(' ').append(name).append('=').append(counts[name.ordinal()]));
+        return res.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package riscv;
+
+import java.util.Arrays;
+
+// Сборщик ошибок декодирования: вместо исключения декодер сообщает адрес, исходное слово и причину.
+// Счётчики ведутся по всем ошибкам, а сами записи хранятся по столбцам только для первых limit из них,
+// так что на повреждённом образе или данных внутри кода память не растёт и объекты на ошибку не создаются.
+// Один сборщик заполняет один поток; сборщики частей объединяются через addAll.
+public class Diagnostics {
+    public static final int DEFAULT_LIMIT = 100;
+
+    public enum Reason {
+        ILLEGAL_INSTRUCTION("illegal instruction"),
+        UNKNOWN_OPCODE("unknown opcode"),
+        UNKNOWN_FUNCTION("unknown function"),
+        UNKNOWN_IMMEDIATE("unknown immediate"),
+        TRUNCATED_INSTRUCTION("truncated instruction");
+
+        private final String title;
+
+        Reason(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    private static final Reason[] REASONS = Reason.values();
+
+    private final int limit;
+    private final long[] counts = new long[REASONS.length];
+    private int[] addresses = new int[0];
+    private int[] words = new int[0];
+    private byte[] reasons = new byte[0];
+    private int retained;
+
+    public Diagnostics() {
+        this(DEFAULT_LIMIT);
+    }
+
+    public Diagnostics(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Diagnostics limit cannot be negative: " + limit);
+        }
+        this.limit = limit;
+    }
+
+    public void report(Reason reason, int address, int word) {
+        counts[reason.ordinal()]++;
+        retain(reason.ordinal(), address, word);
+    }
+
+    private void retain(int reason, int address, int word) {
+        if (retained == limit) {
+            return;
+        }
+        if (retained == addresses.length) {
+            final int capacity = (int) Math.min(limit, Math.max(16, 2L * retained));
+            addresses = Arrays.copyOf(addresses, capacity);
+            words = Arrays.copyOf(words, capacity);
+            reasons = Arrays.copyOf(reasons, capacity);
+        }
+        addresses[retained] = address;
+        words[retained] = word;
+        reasons[retained] = (byte) reason;
+        retained++;
+    }
+
+    // other должен описывать адреса после уже собранных
+    public void addAll(Diagnostics other) {
+        for (int i = 0; i < REASONS.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        for (int i = 0; i < other.retained && retained < limit; i++) {
+            retain(other.reasons[i], other.addresses[i], other.words[i]);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public long count() {
+        return Arrays.stream(counts).sum();
+    }
+
+    public long count(Reason reason) {
+        return counts[reason.ordinal()];
+    }
+
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+
+    // число сохранённых записей, не больше limit
+    public int size() {
+        return retained;
+    }
+
+    public int getAddress(int index) {
+        return addresses[index];
+    }
+
+    public int getWord(int index) {
+        return words[index];
+    }
+
+    public Reason getReason(int index) {
+        return REASONS[reasons[index]];
+    }
+}
@@ -5,12 +5,17 @@ import elf.parser.ByteSource;
 import elf.parser.FileByteSource;
 import riscv.RV32.Commands;
 import riscv.RV32.Instruction;
+import riscv.RV32.InstructionStore;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class Disassembler extends BaseParser {
     private final boolean quiet;
+    private final boolean rvcTable;
+    private final Diagnostics diagnostics;
+    // адрес декодируемой команды, для сообщений о непосредственных значениях
+    private int current;
 
     public Disassembler(int[] source) {
         this(source, true);
@@ -20,24 +25,126 @@ public class Disassembler extends BaseParser {
         this(new FileByteSource(source), quiet);
     }
 
-    private Disassembler(ByteSource source, boolean quiet) {
+    public Disassembler(ByteSource source, boolean quiet) {
+        this(source, quiet, true);
+    }
+
+    public Disassembler(ByteSource source, boolean quiet, boolean rvcTable) {
+        this(source, quiet, rvcTable, null);
+    }
+
+    // с diagnostics ошибки декодирования не бросаются, а сообщаются в него, команда декодируется как UNKNOWN
+    public Disassembler(ByteSource source, boolean quiet, boolean rvcTable, Diagnostics diagnostics) {
         super(source);
         this.quiet = quiet;
+        this.rvcTable = rvcTable;
+        this.diagnostics = diagnostics;
     }
 
     public List<Instruction> disassemble(int address) {
         final List<Instruction> res = new ArrayList<>();
-        while (!eof()) {
-            int h = takeHalf();
-            if ((h & 0x3) == 0x3) {
-                res.add(parseRV32(h | (takeHalf() << 0x10), address));
+        disassemble(address, (instructionAddress, instruction) -> res.add(instruction));
+        return res;
+    }
+
+    public void disassemble(int address, InstructionSink sink) {
+        disassemble(address, Long.MAX_VALUE, sink);
+    }
+
+    // декодирует команды, начинающиеся до limit; возвращает позицию после последней из них
+    public long disassemble(int address, long limit, InstructionSink sink) {
+        while (!eof() && getPointer() < limit) {
+            current = address;
+            if (diagnostics != null && remaining() < ((peek() & 0x3) == 0x3 ? 4 : 2)) {
+                truncated(address, sink);
+                break;
+            }
+            if ((peek() & 0x3) == 0x3) {
+                sink.accept(address, parseRV32(takeWord(), address));
                 address += 0x4;
             } else {
-                res.add(parseRVC(h, address));
+                sink.accept(address, decodeRVC(takeHalf(), address));
                 address += 0x2;
             }
         }
-        return res;
+        return getPointer();
+    }
+
+    // хвост секции короче команды: полуслово ещё выдаётся как UNKNOWN, одиночный байт пропускается
+    private void truncated(int address, InstructionSink sink) {
+        if (remaining() >= 2) {
+            final int h = takeHalf();
+            diagnostics.report(Diagnostics.Reason.TRUNCATED_INSTRUCTION, address, h);
+            sink.accept(address, new Instruction(Type.UNKNOWN, Commands.UNKNOWN, h, 0,
+                    Register.ZERO, Register.ZERO, Register.ZERO));
+        } else {
+            diagnostics.report(Diagnostics.Reason.TRUNCATED_INSTRUCTION, address, take());
+        }
+    }
+
+    private Instruction decodeRVC(int h, int address) {
+        if (rvcTable) {
+            final Instruction instruction = RVCTable.TABLE[h];
+            // неизвестные команды декодируются заново, чтобы сообщить об ошибке с адресом
+            if (quiet && diagnostics == null || instruction.getCommand() != Commands.UNKNOWN) {
+                return instruction;
+            }
+        }
+        return parseRVC(h, address);
+    }
+
+    // Декодирует код дважды, через таблицу и через switch, с настоящими адресами и сборщиками ошибок,
+    // так что неизвестные по таблице полуслова проходят тот же повторный разбор, что и при выводе.
+    // Возвращает количество команд и записей об ошибках, в которых результаты расходятся.
+    public static int verifyRVCTable(ByteSource source, int address) {
+        final InstructionStore table = new InstructionStore();
+        final Diagnostics tableDiagnostics = new Diagnostics();
+        new Disassembler(source, true, true, tableDiagnostics).disassemble(address, table);
+        final InstructionStore expected = new InstructionStore();
+        final Diagnostics expectedDiagnostics = new Diagnostics();
+        new Disassembler(source, true, false, expectedDiagnostics).disassemble(address, expected);
+
+        int mismatches = Math.abs(table.size() - expected.size());
+        final InstructionStore.Cursor actual = table.cursor();
+        final InstructionStore.Cursor wanted = expected.cursor();
+        while (actual.next() && wanted.next()) {
+            if (actual.getAddress() != wanted.getAddress() || actual.getType() != wanted.getType() ||
+                    actual.getCommand() != wanted.getCommand() || actual.getImmediate() != wanted.getImmediate() ||
+                    actual.getRs1() != wanted.getRs1() || actual.getRs2() != wanted.getRs2() ||
+                    actual.getRd() != wanted.getRd()) {
+                mismatches++;
+            }
+        }
+        for (Diagnostics.Reason reason : Diagnostics.Reason.values()) {
+            mismatches += (int) Math.abs(tableDiagnostics.count(reason) - expectedDiagnostics.count(reason));
+        }
+        for (int i = 0; i < Math.min(tableDiagnostics.size(), expectedDiagnostics.size()); i++) {
+            if (tableDiagnostics.getAddress(i) != expectedDiagnostics.getAddress(i) ||
+                    tableDiagnostics.getWord(i) != expectedDiagnostics.getWord(i) ||
+                    tableDiagnostics.getReason(i) != expectedDiagnostics.getReason(i)) {
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    // все 2^16 полуслов декодируются один раз при первом обращении; команды неизменяемы и разделяются
+    private static class RVCTable {
+        private static final Instruction[] TABLE = build();
+
+        private static Disassembler decoder() {
+            // parseRVC не читает из источника, поэтому достаточно пустого полуслова
+            return new Disassembler(new FileByteSource(new int[]{0, 0}), true, false);
+        }
+
+        private static Instruction[] build() {
+            final Disassembler decoder = decoder();
+            final Instruction[] table = new Instruction[1 << 16];
+            for (int h = 0; h < table.length; h++) {
+                table[h] = decoder.parseRVC(h, 0);
+            }
+            return table;
+        }
     }
 
     private Instruction parseRV32(int w, int address) {
@@ -371,6 +478,10 @@ public class Disassembler extends BaseParser {
     }
 
     private int unknownImmediate(String message, int w, Type type) {
+        if (diagnostics != null) {
+            diagnostics.report(Diagnostics.Reason.UNKNOWN_IMMEDIATE, current, w);
+            return 0;
+        }
         if (quiet) {
             return 0;
         }
@@ -378,11 +489,20 @@ public class Disassembler extends BaseParser {
     }
 
     private Instruction unknownInstruction(String message, int address, int w) {
-        return new Instruction(Type.UNKNOWN, unknownCommand(message, address, w), 0, 0,
+        return new Instruction(Type.UNKNOWN, unknown(w == 0 ? Diagnostics.Reason.ILLEGAL_INSTRUCTION :
+                Diagnostics.Reason.UNKNOWN_OPCODE, message, address, w), 0, 0,
                 Register.ZERO, Register.ZERO, Register.ZERO);
     }
 
     private Commands unknownCommand(String message, int address, int w) {
+        return unknown(Diagnostics.Reason.UNKNOWN_FUNCTION, message, address, w);
+    }
+
+    private Commands unknown(Diagnostics.Reason reason, String message, int address, int w) {
+        if (diagnostics != null) {
+            diagnostics.report(reason, address, w);
+            return Commands.UNKNOWN;
+        }
         if (quiet) {
             return Commands.UNKNOWN;
         }
@@ -0,0 +1,7 @@
+package riscv;
+
+import riscv.RV32.Instruction;
+
+public interface InstructionSink {
+    void accept(int address, Instruction instruction);
+}
@@ -0,0 +1,111 @@
+package riscv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Метки по адресам: открытая адресация по int-ключам без упаковки.
+// Значение > 0 -- номер именованной метки + 1, значение < 0 -- -(номер безымянной LOC_ метки + 1),
+// 0 -- метки нет. Строки для LOC_ меток не создаются, их печатает InstructionFormatter.
+public class Labels {
+    private static final int EMPTY = 0;
+
+    private final List<String> names = new ArrayList<>();
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int locals;
+    private int[] sorted;
+
+    public Labels() {
+        keys = new int[64];
+        values = new int[64];
+    }
+
+    public void putName(int address, String name) {
+        names.add(name);
+        put(address, names.size());
+    }
+
+    public void addTarget(int address) {
+        if (find(address) == EMPTY) {
+            put(address, -(++locals));
+        }
+    }
+
+    public int find(int address) {
+        final int mask = keys.length - 1;
+        for (int i = hash(address) & mask; values[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == address) {
+                return values[i];
+            }
+        }
+        return EMPTY;
+    }
+
+    public static boolean isNamed(int label) {
+        return label > 0;
+    }
+
+    public String getName(int label) {
+        return names.get(label - 1);
+    }
+
+    public static int getLocalId(int label) {
+        return -label - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // адреса всех меток по возрастанию, чтобы при печати идти по ним одним проходом
+    public int[] sortedAddresses() {
+        if (sorted == null) {
+            sorted = new int[size];
+            int j = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != EMPTY) {
+                    sorted[j++] = keys[i];
+                }
+            }
+            Arrays.sort(sorted);
+        }
+        return sorted;
+    }
+
+    private void put(int address, int value) {
+        sorted = null;
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        final int mask = keys.length - 1;
+        int i = hash(address) & mask;
+        while (values[i] != EMPTY && keys[i] != address) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == EMPTY) {
+            size++;
+        }
+        keys[i] = address;
+        values[i] = value;
+    }
+
+    private void grow() {
+        final int[] oldKeys = keys;
+        final int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        final int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,195 @@
+package riscv;
+
+import elf.parser.ByteSource;
+import riscv.RV32.Commands;
+import riscv.RV32.InstructionStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelDisassembler {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private final ByteSource source;
+    private final boolean quiet;
+    private final boolean rvcTable;
+    private final int chunkSize;
+    private final Diagnostics diagnostics;
+
+    public ParallelDisassembler(ByteSource source, boolean quiet, boolean rvcTable) {
+        this(source, quiet, rvcTable, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelDisassembler(ByteSource source, boolean quiet, boolean rvcTable, int chunkSize) {
+        this(source, quiet, rvcTable, chunkSize, null);
+    }
+
+    // ошибки выбранных вариантов попадают в diagnostics по порядку адресов
+    public ParallelDisassembler(ByteSource source, boolean quiet, boolean rvcTable, int chunkSize,
+                                Diagnostics diagnostics) {
+        if (chunkSize < 4 || chunkSize % 2 != 0) {
+            throw new IllegalArgumentException("Chunk size must be even and at least 4 bytes: " + chunkSize);
+        }
+        this.source = source;
+        this.quiet = quiet;
+        this.rvcTable = rvcTable;
+        this.chunkSize = chunkSize;
+        this.diagnostics = diagnostics;
+    }
+
+    // Кусок может начинаться с границы или со сдвигом на полуслово (если последняя команда предыдущего куска
+    // длиной 4 байта пересекает границу). Длина команды зависит только от младших битов первого полуслова,
+    // поэтому место, где потоки с обоих начал сходятся, находится без декодирования: до него кусок
+    // декодируется с обоих начал, после него — один раз. Если потоки не сходятся (например, в коде без RVC),
+    // вариант со сдвигом декодируется только тогда, когда предыдущий кусок действительно закончился на нём.
+    public List<InstructionStore> disassemble(int address) {
+        final int count = (int) ((source.size() + chunkSize - 1) / chunkSize);
+        final Chunk[] chunks = new Chunk[count];
+        ForkJoinPool.commonPool().invoke(new DecodeTask(chunks, address, 0, count));
+
+        final List<InstructionStore> res = new ArrayList<>(2 * count);
+        long start = 0;
+        for (int i = 0; i < count; i++) {
+            final Chunk chunk = chunks[i];
+            final long limit = (long) (i + 1) * chunkSize;
+            Segment head = chunk.heads[(int) (start - (long) i * chunkSize) / 2];
+            if (head == null) {
+                head = tryDecode(address, start, limit);
+            }
+            final Segment tail = chunk.tail;
+            if (head.error != null) {
+                throw head.error;
+            }
+            if (tail != null && tail.error != null) {
+                throw tail.error;
+            }
+            if (diagnostics != null) {
+                diagnostics.addAll(head.diagnostics);
+                if (tail != null) {
+                    diagnostics.addAll(tail.diagnostics);
+                }
+            } else if (!quiet && (head.hasUnknown || tail != null && tail.hasUnknown)) {
+                // повторяем кусок последовательно, чтобы получить то же исключение, что и без распараллеливания
+                decode(address, start, limit, false);
+            }
+            res.add(head.store);
+            if (tail != null) {
+                res.add(tail.store);
+            }
+            start = tail != null ? tail.end : head.end;
+        }
+        return res;
+    }
+
+    // позиция, где сходятся потоки команд с start и start + 2, или -1, если они не сходятся до limit
+    private long resync(long start, long limit) {
+        long shifted = start + 2;
+        while (start != shifted) {
+            if (start < shifted) {
+                start = next(start, limit);
+                if (start < 0) {
+                    return -1;
+                }
+            } else {
+                shifted = next(shifted, limit);
+                if (shifted < 0) {
+                    return -1;
+                }
+            }
+        }
+        return start;
+    }
+
+    // конец команды с позиции position, как его найдёт Disassembler; -1 за limit и у обрезанной концом команды
+    private long next(long position, long limit) {
+        if (position >= limit) {
+            return -1;
+        }
+        final long end = position + ((source.getByte(position) & 0x3) == 0x3 ? 4 : 2);
+        return end <= source.size() ? end : -1;
+    }
+
+    private Segment tryDecode(int address, long start, long limit) {
+        try {
+            return decode(address, start, limit, true);
+        } catch (RuntimeException e) {
+            final Segment failed = new Segment();
+            failed.error = e;
+            return failed;
+        }
+    }
+
+    private Segment decode(int address, long start, long limit, boolean quiet) {
+        final Segment segment = new Segment();
+        segment.store = new InstructionStore((int) Math.min(chunkSize / 2, limit - start));
+        if (diagnostics != null) {
+            segment.diagnostics = new Diagnostics(diagnostics.getLimit());
+        }
+        if (start >= source.size()) {
+            segment.end = start;
+            return segment;
+        }
+        final Disassembler disassembler = new Disassembler(source.slice(start, source.size() - start),
+                quiet, rvcTable, segment.diagnostics);
+        segment.end = start + disassembler.disassemble(address + (int) start, limit - start,
+                (instructionAddress, instruction) -> {
+                    segment.hasUnknown |= instruction.getCommand() == Commands.UNKNOWN;
+                    segment.store.accept(instructionAddress, instruction);
+                });
+        return segment;
+    }
+
+    private static class Segment {
+        private InstructionStore store;
+        private long end;
+        private boolean hasUnknown;
+        private Diagnostics diagnostics;
+        private RuntimeException error;
+    }
+
+    // начала куска с границы и со сдвигом до места схождения и общий хвост после него;
+    // без схождения хвоста нет, а начало со сдвигом декодируется лениво
+    private static class Chunk {
+        private final Segment[] heads = new Segment[2];
+        private Segment tail;
+    }
+
+    private class DecodeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Chunk[] chunks;
+        private final int address;
+        private final int from;
+        private final int to;
+
+        private DecodeTask(Chunk[] chunks, int address, int from, int to) {
+            this.chunks = chunks;
+            this.address = address;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                final int mid = (from + to) >>> 1;
+                invokeAll(new DecodeTask(chunks, address, from, mid), new DecodeTask(chunks, address, mid, to));
+                return;
+            }
+            final long start = (long) from * chunkSize;
+            final long limit = start + chunkSize;
+            final Chunk chunk = new Chunk();
+            final long meet = resync(start, limit);
+            if (meet < 0) {
+                chunk.heads[0] = tryDecode(address, start, limit);
+            } else {
+                chunk.heads[0] = tryDecode(address, start, meet);
+                chunk.heads[1] = tryDecode(address, start + 2, meet);
+                chunk.tail = tryDecode(address, meet, limit);
+            }
+            chunks[from] = chunk;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package riscv.RV32;
+
+import riscv.Labels;
+import riscv.Register;
+import riscv.Type;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+public class InstructionFormatter {
+    private static final char[][] REGISTER_NAMES = new char[Register.values().length][];
+    private static final char[][] MNEMONICS = new char[Commands.values().length][];
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] LINE_SEPARATOR = System.lineSeparator().toCharArray();
+    private static final int MNEMONIC_WIDTH = 6;
+
+    static {
+        for (Register register : Register.values()) {
+            REGISTER_NAMES[register.ordinal()] = register.toString().toLowerCase().toCharArray();
+        }
+        for (Commands command : Commands.values()) {
+            MNEMONICS[command.ordinal()] = Instruction.MNEMONICS[command.ordinal()].toCharArray();
+        }
+    }
+
+    private char[] buf;
+    private int length;
+
+    public InstructionFormatter() {
+        buf = new char[128];
+    }
+
+    public InstructionFormatter clear() {
+        length = 0;
+        return this;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void writeTo(Writer out) throws IOException {
+        out.write(buf, 0, length);
+    }
+
+    public CharBuffer chars() {
+        return CharBuffer.wrap(buf, 0, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, length);
+    }
+
+    public InstructionFormatter append(char c) {
+        ensureCapacity(1);
+        buf[length++] = c;
+        return this;
+    }
+
+    public InstructionFormatter append(String s) {
+        ensureCapacity(s.length());
+        s.getChars(0, s.length(), buf, length);
+        length += s.length();
+        return this;
+    }
+
+    public InstructionFormatter append(char[] s) {
+        ensureCapacity(s.length);
+        System.arraycopy(s, 0, buf, length, s.length);
+        length += s.length;
+        return this;
+    }
+
+    public InstructionFormatter appendSpaces(int count) {
+        if (count <= 0) {
+            return this;
+        }
+        ensureCapacity(count);
+        Arrays.fill(buf, length, length + count, ' ');
+        length += count;
+        return this;
+    }
+
+    // то же самое, что %{width}s
+    public InstructionFormatter appendRight(String s, int width) {
+        return appendSpaces(width - s.length()).append(s);
+    }
+
+    // то же самое, что %0{digits}x
+    public InstructionFormatter appendHex(int value, int digits) {
+        for (int i = 8; i > digits; i--) {
+            if ((value >>> ((i - 1) * 4)) != 0) {
+                digits = i;
+                break;
+            }
+        }
+        ensureCapacity(digits);
+        for (int i = digits - 1; i >= 0; i--) {
+            buf[length++] = HEX_DIGITS[(value >>> (i * 4)) & 0xf];
+        }
+        return this;
+    }
+
+    // то же самое, что %d
+    public InstructionFormatter appendDecimal(int value) {
+        ensureCapacity(11);
+        long v = value;
+        if (v < 0) {
+            buf[length++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long p = 10; p <= v; p *= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buf[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    public InstructionFormatter newLine() {
+        return append(LINE_SEPARATOR);
+    }
+
+    public InstructionFormatter appendInstruction(final Type type, final Commands command, final int immediate,
+                                                  final Register rs1, final Register rs2, final Register rd,
+                                                  final int address, final Labels labels) {
+        if (type == Type.UNKNOWN || command == Commands.UNKNOWN) {
+            return append("unknown_command\n");
+        }
+        switch (command) {
+            case LB, LH, LW, LBU, LHU, C_LW, JALR -> mnemonic(command).register(rd).comma().offset(immediate, rs1);
+            case C_LWSP -> mnemonic(command).register(rd).comma().offset(immediate, Register.SP);
+            case SB, SH, SW, C_SW -> mnemonic(command).register(rs2).comma().offset(immediate, rs1);
+            case C_SWSP -> mnemonic(command).register(rs2).comma().offset(immediate, Register.SP);
+            case NOP, C_NOP -> append(MNEMONICS[command.ordinal()]);
+            case JAL -> mnemonic(command).register(rd).comma().label(address + immediate, labels).newLine();
+            case C_JAL, C_J -> mnemonic(command).label(address + immediate, labels).newLine();
+            case C_JR, C_JALR -> mnemonic(command).register(rs1).newLine();
+            case BEQ, BNE, BLT, BLTU, BGE, BGEU -> mnemonic(command).register(rs1).comma().register(rs2).comma()
+                    .label(address + immediate, labels).newLine();
+            case C_BEQZ, C_BNEZ -> mnemonic(command).register(rs1).comma().label(address + immediate, labels).newLine();
+            case C_MV -> mnemonic(command).register(rd).comma().register(rs2).newLine();
+            default -> {
+                switch (type) {
+                    case R -> mnemonic(command).register(rd).comma().register(rs1).comma().register(rs2);
+                    case I, SH, CSH, CIW -> mnemonic(command).register(rd).comma().register(rs1).comma()
+                            .appendDecimal(immediate);
+                    case S, B -> mnemonic(command).register(rs1).comma().register(rs2).comma().appendDecimal(immediate);
+                    case U, J -> mnemonic(command).register(rd).comma().appendDecimal(immediate);
+                    case SYSTEM, CSYS -> append(MNEMONICS[command.ordinal()])
+                            .appendSpaces(MNEMONIC_WIDTH - MNEMONICS[command.ordinal()].length);
+                    case CJ -> mnemonic(command).appendDecimal(immediate);
+                    case CB -> mnemonic(command).register(rs1).comma().appendDecimal(immediate);
+                    case CI -> {
+                        switch (command) {
+                            case C_LI, C_LUI, C_ADDI16SP -> mnemonic(command).register(rd).comma()
+                                    .appendDecimal(immediate);
+                            case C_ADDI -> mnemonic(command).register(rd).comma().register(rs1).comma()
+                                    .appendDecimal(immediate);
+                            default -> throw new AssertionError("Unknown instruction. Type: " + type +
+                                    ", Command: " + command);
+                        }
+                    }
+                    case CR, CA -> mnemonic(command).register(rs1).comma().register(rs2);
+                    default -> throw new AssertionError("Unknown instruction. Type: " + type +
+                            ", Command: " + command);
+                }
+                newLine();
+            }
+        }
+        return this;
+    }
+
+    // то же самое, что "%-6s "
+    private InstructionFormatter mnemonic(Commands command) {
+        final char[] mnemonic = MNEMONICS[command.ordinal()];
+        return append(mnemonic).appendSpaces(MNEMONIC_WIDTH - mnemonic.length).append(' ');
+    }
+
+    private InstructionFormatter register(Register register) {
+        return append(REGISTER_NAMES[register.ordinal()]);
+    }
+
+    private InstructionFormatter comma() {
+        return append(',').append(' ');
+    }
+
+    private InstructionFormatter offset(int immediate, Register base) {
+        return appendDecimal(immediate).append('(').register(base).append(')').newLine();
+    }
+
+    private InstructionFormatter label(int address, Labels labels) {
+        final int label = labels.find(address);
+        return label == 0 ? append("null") : appendLabel(labels, label);
+    }
+
+    public InstructionFormatter appendLabel(Labels labels, int label) {
+        if (Labels.isNamed(label)) {
+            return append(labels.getName(label));
+        }
+        return append("LOC_").appendHex(Labels.getLocalId(label), 5);
+    }
+
+    public static int labelLength(Labels labels, int label) {
+        if (Labels.isNamed(label)) {
+            return labels.getName(label).length();
+        }
+        final int id = Labels.getLocalId(label);
+        return 4 + Math.max(5, (32 - Integer.numberOfLeadingZeros(id) + 3) / 4);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, length + extra));
+        }
+    }
+}
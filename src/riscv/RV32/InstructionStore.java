@@ -0,0 +1,176 @@
+package riscv.RV32;
+
+import riscv.InstructionSink;
+import riscv.Labels;
+import riscv.Register;
+import riscv.Type;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class InstructionStore implements InstructionSink {
+    private static final Commands[] COMMANDS = Commands.values();
+    private static final Type[] TYPES = Type.values();
+
+    // команда (7 бит) | тип (5 бит) | rd | rs1 | rs2 (по 5 бит) | команда длиной 4 байта (1 бит)
+    private static final int TYPE_SHIFT = 7;
+    private static final int RD_SHIFT = 12;
+    private static final int RS1_SHIFT = 17;
+    private static final int RS2_SHIFT = 22;
+    private static final int WIDE_SHIFT = 27;
+
+    private int[] packed;
+    private int[] immediates;
+    private int size;
+    private int unknownCount;
+    private int startAddress;
+    private int lastAddress;
+
+    public InstructionStore() {
+        this(16);
+    }
+
+    public InstructionStore(int capacity) {
+        packed = new int[Math.max(capacity, 1)];
+        immediates = new int[packed.length];
+    }
+
+    @Override
+    public void accept(int address, Instruction instruction) {
+        add(address, instruction.getType(), instruction.getCommand(), instruction.getImmediate(),
+                instruction.getRs1(), instruction.getRs2(), instruction.getRd());
+    }
+
+    public void add(int address, Type type, Commands command, int immediate,
+                    Register rs1, Register rs2, Register rd) {
+        // длина предыдущей команды определяется по адресу следующей
+        if (size == 0) {
+            startAddress = address;
+        } else if (address - lastAddress == 4) {
+            packed[size - 1] |= 1 << WIDE_SHIFT;
+        }
+        lastAddress = address;
+        if (size == packed.length) {
+            packed = Arrays.copyOf(packed, size * 2);
+            immediates = Arrays.copyOf(immediates, size * 2);
+        }
+        packed[size] = command.ordinal() | (type.ordinal() << TYPE_SHIFT) | (rd.ordinal() << RD_SHIFT) |
+                (rs1.ordinal() << RS1_SHIFT) | (rs2.ordinal() << RS2_SHIFT);
+        immediates[size] = immediate;
+        size++;
+        if (command == Commands.UNKNOWN) {
+            unknownCount++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getUnknownCount() {
+        return unknownCount;
+    }
+
+    public long bytesUsed() {
+        return 4L * packed.length + 4L * immediates.length;
+    }
+
+    public double bytesPerInstruction() {
+        return size == 0 ? 0 : (double) bytesUsed() / size;
+    }
+
+    // двоичное представление: size, unknownCount, startAddress, lastAddress, затем packed и immediates
+    public long serializedSize() {
+        return 16 + 8L * size;
+    }
+
+    public void writeTo(ByteBuffer out) {
+        out.putInt(size).putInt(unknownCount).putInt(startAddress).putInt(lastAddress);
+        out.asIntBuffer().put(packed, 0, size).put(immediates, 0, size);
+        out.position(out.position() + 8 * size);
+    }
+
+    public static InstructionStore readFrom(ByteBuffer in) {
+        final InstructionStore res = new InstructionStore(0);
+        res.size = in.getInt();
+        res.unknownCount = in.getInt();
+        res.startAddress = in.getInt();
+        res.lastAddress = in.getInt();
+        if (res.size < 0 || res.unknownCount < 0 || res.unknownCount > res.size || 8L * res.size > in.remaining()) {
+            throw new IllegalArgumentException("Corrupted instruction store");
+        }
+        res.packed = new int[Math.max(res.size, 1)];
+        res.immediates = new int[res.packed.length];
+        in.asIntBuffer().get(res.packed, 0, res.size).get(res.immediates, 0, res.size);
+        in.position(in.position() + 8 * res.size);
+        return res;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d instructions, %.2f bytes/instruction", size, bytesPerInstruction());
+    }
+
+    public class Cursor {
+        private int index = -1;
+        private int address;
+        private int current;
+
+        private Cursor() {
+        }
+
+        public boolean next() {
+            if (index + 1 >= size) {
+                return false;
+            }
+            if (index < 0) {
+                address = startAddress;
+            } else {
+                address += getLength();
+            }
+            current = packed[++index];
+            return true;
+        }
+
+        public int getAddress() {
+            return address;
+        }
+
+        public Commands getCommand() {
+            return COMMANDS[current & 0x7f];
+        }
+
+        public Type getType() {
+            return TYPES[(current >>> TYPE_SHIFT) & 0x1f];
+        }
+
+        public Register getRd() {
+            return Register.list.get((current >>> RD_SHIFT) & 0x1f);
+        }
+
+        public Register getRs1() {
+            return Register.list.get((current >>> RS1_SHIFT) & 0x1f);
+        }
+
+        public Register getRs2() {
+            return Register.list.get((current >>> RS2_SHIFT) & 0x1f);
+        }
+
+        public int getImmediate() {
+            return immediates[index];
+        }
+
+        public int getLength() {
+            return ((current >>> WIDE_SHIFT) & 0x1) == 1 ? 4 : 2;
+        }
+
+        public String printInstruction(final int address, final Labels labels) {
+            return Instruction.printInstruction(getType(), getCommand(), getImmediate(),
+                    getRs1(), getRs2(), getRd(), address, labels);
+        }
+    }
+}